@@ -24,30 +24,91 @@
 package org.jenkinsci.plugins.junitrealtimetestreporter;
 
 import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.AbortException;
+import hudson.FilePath;
 import hudson.Main;
 import hudson.model.Result;
 import hudson.model.Run;
+import hudson.remoting.VirtualChannel;
+import hudson.tasks.junit.CaseResult;
+import hudson.tasks.junit.SuiteResult;
 import hudson.tasks.junit.TestResult;
 import hudson.tasks.test.AbstractTestResultAction;
+import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import jenkins.util.SystemProperties;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
 import org.kohsuke.stapler.HttpRedirect;
+import org.kohsuke.stapler.HttpResponse;
+import org.kohsuke.stapler.HttpResponses;
+import org.kohsuke.stapler.QueryParameter;
+import org.kohsuke.stapler.Stapler;
 import org.kohsuke.stapler.StaplerProxy;
+import org.kohsuke.stapler.StaplerRequest2;
+import org.kohsuke.stapler.StaplerResponse2;
+import org.kohsuke.stapler.export.Exported;
 
 public abstract class AbstractRealtimeTestResultAction extends AbstractTestResultAction<AbstractRealtimeTestResultAction> implements StaplerProxy {
 
     private static final Logger LOGGER = Logger.getLogger(AbstractRealtimeTestResultAction.class.getName());
 
+    private static final AtomicReferenceFieldUpdater<AbstractRealtimeTestResultAction, RealtimeSnapshot> SNAPSHOT =
+            AtomicReferenceFieldUpdater.newUpdater(AbstractRealtimeTestResultAction.class, RealtimeSnapshot.class, "snapshot");
+    private static final AtomicReferenceFieldUpdater<AbstractRealtimeTestResultAction, ParseHistory> HISTORY =
+            AtomicReferenceFieldUpdater.newUpdater(AbstractRealtimeTestResultAction.class, ParseHistory.class, "history");
+    private static final AtomicIntegerFieldUpdater<AbstractRealtimeTestResultAction> PARSING =
+            AtomicIntegerFieldUpdater.newUpdater(AbstractRealtimeTestResultAction.class, "parsing");
+
+    /** Figures of the previous build, kept with the build so that progress survives a restart. */
     private int previousResultTestsCount = -1;
     private float previousResultTestsTime = -1;
-    protected TestResult result;
-    protected TestProgress progress;
-    private transient long updated;
+    /** @deprecated results are kept in {@link RealtimeSnapshot}s; only read from builds saved by older versions */
+    @Deprecated
+    protected transient TestResult result;
+    /** @deprecated see {@link #getTestProgress} */
+    @Deprecated
+    protected transient TestProgress progress;
+    /** Last published state; {@code null} until the first successful parse. */
+    private transient volatile RealtimeSnapshot snapshot;
+    /** 1 while some thread is parsing, so concurrent requests are served the current snapshot instead. */
+    private transient volatile int parsing;
+    private transient ReportScanner scanner;
+    /** Refreshes failed in a row, other than for lack of reports. */
+    private transient volatile int failures;
+    /** No refresh is attempted before this time after a failure. */
+    private transient volatile long retryAt;
+    /** When someone last looked at these results in the UI. */
+    private transient volatile long lastViewed;
+    /** Why the results could not be refreshed, when that is something users can act on. */
+    @CheckForNull
+    private transient volatile String problem;
+    /** Created on first use, as actions read from disk skip the constructor. */
+    private transient volatile ParseHistory history;
+
+    /**
+     * Results viewed within this many milliseconds count as watched, and are refreshed at their parse interval.
+     */
+    static long WATCH_WINDOW = SystemProperties.getLong(AbstractRealtimeTestResultAction.class.getName() + ".watchWindow", TimeUnit.MINUTES.toMillis(1));
+
+    /**
+     * Shortest interval between parses of results nobody watches, for example only read by API clients.
+     */
+    static long UNWATCHED_PARSE_INTERVAL = SystemProperties.getLong(AbstractRealtimeTestResultAction.class.getName() + ".unwatchedParseInterval", TimeUnit.MINUTES.toMillis(2));
+
+    /**
+     * Longest wait between attempts to refresh while parsing keeps failing, for example as the agent is gone.
+     */
+    static long MAX_RETRY_INTERVAL = SystemProperties.getLong(AbstractRealtimeTestResultAction.class.getName() + ".maxRetryInterval", TimeUnit.MINUTES.toMillis(5));
 
     protected AbstractRealtimeTestResultAction() {}
 
@@ -57,46 +118,269 @@ public abstract class AbstractRealtimeTestResultAction extends AbstractTestResul
 
     @Override
     public TestResult getResult() {
-        final long threshold = getParseInterval();
+        return refresh(true).getResult();
+    }
+
+    /**
+     * Latest snapshot, parsing first if the cached one is too old.
+     * Never blocks on another thread's parse; at most one parse runs per action.
+     *
+     * @param needResult whether the caller works on the parsed result rather than only on counters and progress,
+     *                   so that a result reclaimed under memory pressure has to be parsed again right away
+     */
+    @NonNull
+    RealtimeSnapshot refresh(boolean needResult) {
+        final RealtimeSnapshot current = snapshot();
+        final long threshold = getRefreshInterval();
         // TODO possible improvements:
         // · always run parse in case result == null
         // · run parse regardless of cache if result.getTotalCount() == 0
-        if (updated > System.currentTimeMillis() - threshold && !Main.isUnitTest) {
+        // a reclaimed result is parsed again, from scratch as nothing refers to it anymore, only once someone needs it
+        if (current.getUpdated() > System.currentTimeMillis() - threshold && !Main.isUnitTest && !(needResult && current.isReclaimed())) {
             LOGGER.fine("Cache hit");
-            return result;
+            history().hit();
+            RealtimeMetrics.INSTANCE.hit();
+            return current;
+        }
+        if (System.currentTimeMillis() < retryAt) {
+            LOGGER.fine("Backing off after failed parse, serving stale snapshot");
+            history().hit();
+            RealtimeMetrics.INSTANCE.hit();
+            return current;
+        }
+        if (!PARSING.compareAndSet(this, 0, 1)) {
+            LOGGER.fine("Parse already in progress, serving last snapshot");
+            history().hit();
+            RealtimeMetrics.INSTANCE.hit();
+            return current;
         }
+        ParseMetrics.Recorder recorder = ParseMetrics.Recorder.start();
+        RealtimeParseEvent event = new RealtimeParseEvent();
+        event.begin();
+        ParseMetrics.Outcome outcome = ParseMetrics.Outcome.FAILED;
         try {
-            final long started = System.currentTimeMillis(); // TODO use nanoTime
             // TODO this can block on Remoting and hang the UI; need to refresh results asynchronously
-            result = parse();
-            result.setParentAction(this);
-            if (updated == 0 && previousResultTestsCount == -1) {
-                TestResult previousResult = findPreviousTestResult();
-                if (previousResult != null) {
-                    previousResultTestsCount = previousResult.getTotalCount();
-                    previousResultTestsTime = previousResult.getDuration();
+            TestResult result = parse();
+            long merging = System.nanoTime();
+            RealtimeSnapshot next;
+            if (result == current.getResult()) {
+                LOGGER.fine("Reports unchanged");
+                next = current.touch(System.currentTimeMillis());
+                outcome = ParseMetrics.Outcome.UNCHANGED;
+            } else {
+                result.setParentAction(this);
+                if (current == RealtimeSnapshot.EMPTY) {
+                    next = first(result);
+                } else {
+                    next = current.next(result, System.currentTimeMillis());
                 }
-                
-            }
-            if (previousResultTestsCount != -1) {
-                progress = new TestProgress(previousResultTestsCount, previousResultTestsTime, result);
+                outcome = ParseMetrics.Outcome.PARSED;
             }
-            if (LOGGER.isLoggable(Level.FINE)) {
-                LOGGER.log(Level.FINE, "Parsing of {0} test results took {1}ms", new Object[] {result.getTotalCount(), System.currentTimeMillis() - started});
-            }
-            updated = System.currentTimeMillis();
+            recorder.merge(System.nanoTime() - merging);
+            // loses only against clear(), in which case the result is no longer wanted
+            SNAPSHOT.compareAndSet(this, current == RealtimeSnapshot.EMPTY ? null : current, next);
+            failures = 0;
+            retryAt = 0;
+            problem = null;
+        } catch (ParseInProgressException ex) {
+            LOGGER.fine("Parse still running on the agent, serving last snapshot");
+            outcome = ParseMetrics.Outcome.PENDING;
         } catch (AbortException ex) {
             // Thrown when there are no reports or no workspace witch is normal
             // at the beginning the build. This is also a signal that there are
             // no reports to update (already parsed was excluded and no new have
             // arrived so far).
             LOGGER.fine("No new reports found.");
-        } catch (InterruptedException ex) {
-            LOGGER.log(Level.WARNING, "Unable to parse", ex);
-        } catch (IOException ex) {
-            LOGGER.log(Level.WARNING, "Unable to parse", ex);
+            outcome = ParseMetrics.Outcome.NO_REPORTS;
+        } catch (InterruptedException | IOException ex) {
+            failed(current, ex);
+        } finally {
+            parsing = 0;
+            ParseMetrics metrics = recorder.stop(outcome, snapshot().getColumns().getTotalCount() - current.getColumns().getTotalCount());
+            history().add(metrics);
+            RealtimeMetrics.INSTANCE.record(metrics);
+            event.record(run, recorder, metrics);
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.log(Level.FINE, "Refresh of {0} results {1} in {2}ms", new Object[] {run, outcome, metrics.getTotalMillis()});
+            }
+        }
+        return snapshot();
+    }
+
+    /**
+     * Snapshot of the first result, looking up the previous build unless that was done before a restart.
+     */
+    private RealtimeSnapshot first(TestResult result) throws IOException, InterruptedException {
+        if (previousResultTestsCount == -1) {
+            TestResult previousResult = findPreviousTestResult();
+            if (previousResult != null) {
+                previousResultTestsCount = previousResult.getTotalCount();
+                previousResultTestsTime = previousResult.getDuration();
+            }
+        }
+        return RealtimeSnapshot.of(result, previousResultTestsCount, previousResultTestsTime, System.currentTimeMillis());
+    }
+
+    /**
+     * Keeps serving the current snapshot, marked as stale, and waits exponentially longer before each new attempt
+     * so that request threads do not keep hitting a dead agent channel.
+     */
+    private void failed(RealtimeSnapshot current, Exception ex) {
+        long now = System.currentTimeMillis();
+        int failures = ++this.failures;
+        long delay = Math.min(MAX_RETRY_INTERVAL, getParseInterval() << Math.min(failures - 1, 16));
+        retryAt = now + delay;
+        problem = ex instanceof ParseBudgetExceededException ? ex.getMessage() : null;
+        if (current != RealtimeSnapshot.EMPTY) {
+            SNAPSHOT.compareAndSet(this, current, current.stale(now));
+        }
+        if (failures == 1) {
+            LOGGER.log(Level.WARNING, "Unable to parse, serving last results until it works again", ex);
+        } else {
+            LOGGER.log(Level.FINE, "Unable to parse, " + failures + " failures in a row, retrying in " + delay + "ms", ex);
+        }
+    }
+
+    /**
+     * Someone is looking at these results, so keep them fresh.
+     */
+    /*package*/ void viewed() {
+        lastViewed = System.currentTimeMillis();
+        RealtimeRefreshScheduler.watch(this);
+    }
+
+    /**
+     * Milliseconds a snapshot is served before parsing again: the parse interval while watched, longer otherwise.
+     */
+    /*package*/ long getRefreshInterval() {
+        return isWatched() ? getParseInterval() : Math.max(getParseInterval(), UNWATCHED_PARSE_INTERVAL);
+    }
+
+    /**
+     * Whether these results were viewed in the UI recently.
+     */
+    public boolean isWatched() {
+        return System.currentTimeMillis() - lastViewed < WATCH_WINDOW;
+    }
+
+    /**
+     * Whether the results shown could not be refreshed lately, typically as the agent went offline.
+     */
+    public boolean isStale() {
+        return snapshot().isStale();
+    }
+
+    /**
+     * Why the results shown are not being refreshed, for example a report too big to parse in time.
+     */
+    @CheckForNull
+    public String getProblem() {
+        return problem;
+    }
+
+    /**
+     * Milliseconds since the results shown were parsed, or -1 if nothing was parsed yet.
+     */
+    public long getResultAge() {
+        long updated = snapshot().getUpdated();
+        return updated == 0 ? -1 : System.currentTimeMillis() - updated;
+    }
+
+    /**
+     * Publishes a result obtained without calling {@link #parse}, for example pushed by the build itself.
+     */
+    protected void publish(@NonNull TestResult result) throws IOException, InterruptedException {
+        result.setParentAction(this);
+        RealtimeSnapshot first = null;
+        while (true) {
+            RealtimeSnapshot current = snapshot;
+            RealtimeSnapshot next;
+            if (current != null) {
+                next = current.next(result, System.currentTimeMillis());
+            } else {
+                if (first == null) {
+                    first = first(result);
+                }
+                next = first;
+            }
+            if (SNAPSHOT.compareAndSet(this, current, next)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Result of the last successful parse, which {@link #parse} may return again if nothing changed.
+     */
+    @CheckForNull
+    protected TestResult getLastResult() {
+        return snapshot().getResult();
+    }
+
+    /*package*/ synchronized ReportScanner scanner() {
+        if (scanner == null) {
+            scanner = new ReportScanner();
         }
-        return result;
+        return scanner;
+    }
+
+    private ParseHistory history() {
+        ParseHistory h = history;
+        if (h == null) {
+            if (HISTORY.compareAndSet(this, null, new ParseHistory())) {
+                RealtimeMetrics.INSTANCE.register(this);
+            }
+            h = history;
+        }
+        return h;
+    }
+
+    /**
+     * Metrics of the last few refreshes that parsed or attempted to, most recent first.
+     */
+    @Exported(visibility = 2)
+    public List<ParseMetrics> getParseMetrics() {
+        return history().get();
+    }
+
+    /**
+     * Number of times results were served without parsing.
+     */
+    @Exported(visibility = 2)
+    public long getCacheHits() {
+        return history().getHits();
+    }
+
+    /**
+     * Number of times a parse was attempted to serve results.
+     */
+    @Exported(visibility = 2)
+    public long getCacheMisses() {
+        return history().getMisses();
+    }
+
+    /**
+     * Whether a parse is running right now.
+     */
+    /*package*/ boolean isParsing() {
+        return parsing != 0;
+    }
+
+    /**
+     * Last published snapshot, without parsing.
+     */
+    @NonNull
+    /*package*/ RealtimeSnapshot snapshot() {
+        RealtimeSnapshot s = snapshot;
+        return s != null ? s : RealtimeSnapshot.EMPTY;
+    }
+
+    /**
+     * Drops the current snapshot and stops refreshing it in the background, for example once the action is detached.
+     */
+    protected void clear() {
+        RealtimeRefreshScheduler.unwatch(this);
+        snapshot = null;
     }
 
     protected long getParseInterval() {
@@ -108,27 +392,148 @@ public abstract class AbstractRealtimeTestResultAction extends AbstractTestResul
 
     @Override
     public int getFailCount() {
-        if (getResult() == null) {
-            return 0;
-        }
-        return getResult().getFailCount();
+        return refresh(false).getColumns().getFailCount();
     }
 
     @Override
     public List<? extends hudson.tasks.test.TestResult> getFailedTests() {
-        if (getResult() == null) {
+        TestResult result = getResult();
+        if (result == null) {
             return Collections.emptyList();
         }
 
-        return getResult().getFailedTests();
+        return result.getFailedTests();
     }
 
     @Override
     public int getTotalCount() {
-        if (getResult() == null) {
-            return 0;
+        return refresh(false).getColumns().getTotalCount();
+    }
+
+    @Override
+    public int getSkipCount() {
+        return refresh(false).getColumns().getSkipCount();
+    }
+
+    /**
+     * Failed tests of the current result, sorted on demand.
+     * The index is built over the columns, so a reclaimed result is not parsed again just to list its failures.
+     */
+    public FailureIndex getFailureIndex() {
+        return refresh(false).getFailureIndex();
+    }
+
+    /**
+     * Paged and filtered listing of failed tests, as the full list can be too big to render at once.
+     * Failures of a result reclaimed under memory pressure only come with their name and duration.
+     *
+     * @param sort one of {@link FailureIndex.Order}, by name if not specified
+     * @param start index of the first failure to return
+     * @param limit maximum number of failures to return
+     * @param filter case insensitive substring of the test full name
+     * @see RealtimeTestResultsAction.Details
+     */
+    public HttpResponse doFailures(@QueryParameter String sort, @QueryParameter int start, @QueryParameter int limit, @QueryParameter String filter) {
+        viewed();
+        FailureIndex.Page page = getFailureIndex().page(FailureIndex.Order.parse(sort), filter, start, limit);
+        JSONArray failures = new JSONArray();
+        // the cases found refer to their result, keeping it in memory while they are listed
+        List<CaseResult> cases = page.getItems();
+        for (int i = 0; i < page.size(); i++) {
+            JSONObject o = new JSONObject();
+            o.put("name", page.getName(i));
+            o.put("duration", page.getDuration(i));
+            CaseResult c = cases.get(i);
+            if (c != null) {
+                o.put("url", c.getRelativePathFrom(c.getTestResult()));
+                o.put("age", c.getAge());
+                o.put("errorDetails", c.getErrorDetails());
+            }
+            failures.add(o);
+        }
+        JSONObject json = new JSONObject();
+        json.put("start", page.getStart());
+        json.put("total", page.getTotal());
+        json.put("stale", isStale());
+        json.put("age", getResultAge());
+        String problem = getProblem();
+        if (problem != null) {
+            json.put("problem", problem);
         }
-        return getResult().getTotalCount();
+        json.put("failures", failures);
+        return HttpResponses.okJSON(json);
+    }
+
+    /**
+     * Complete output of a test case, read from its report as the snapshot only keeps it trimmed in {@link RealtimeStdio#LAZY} mode.
+     *
+     * @param test full name of the case
+     * @param stream {@code err} for standard error, standard output otherwise
+     * @see RealtimeTestResultsAction.Details
+     */
+    public void doStdio(StaplerRequest2 req, StaplerResponse2 rsp, @QueryParameter String test, @QueryParameter String stream) throws IOException, InterruptedException {
+        viewed();
+        TestResult result = refresh(true).getResult();
+        VirtualChannel channel = getReportChannel();
+        CaseResult found = null;
+        if (result != null && test != null) {
+            for (SuiteResult suite : result.getSuites()) {
+                if (found != null) {
+                    break;
+                }
+                for (CaseResult c : suite.getCases()) {
+                    if (c.getFullName().equals(test)) {
+                        found = c;
+                        break;
+                    }
+                }
+            }
+        }
+        if (found == null || found.getSuiteResult() == null || found.getSuiteResult().getFile() == null || channel == null) {
+            rsp.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        rsp.setContentType("text/plain;charset=UTF-8");
+        FilePath report = new FilePath(channel, found.getSuiteResult().getFile());
+        RealtimeStdio.stream(report, found.getClassName(), found.getName(), "err".equals(stream), rsp.getOutputStream());
+    }
+
+    /**
+     * Channel to the agent holding the reports, or {@code null} if they cannot be read now.
+     */
+    @CheckForNull
+    protected VirtualChannel getReportChannel() throws IOException, InterruptedException {
+        return null;
+    }
+
+    /**
+     * URL of the {@link RealtimeTestResultsAction.Details} of this action, relative to the context path, as everything
+     * under {@link #getUrlName} is the test result.
+     */
+    public String getDetailsUrl() {
+        return run.getUrl() + RealtimeTestResultsAction.URL_NAME + "/" + getUrlName() + "/";
+    }
+
+    /**
+     * Whether the current request is for the test result of this action or a page below it,
+     * where {@code action.jelly} adds the metrics of the last refreshes to the side panel.
+     */
+    public boolean isReportRequest() {
+        StaplerRequest2 req = Stapler.getCurrentRequest2();
+        return req != null && req.getRequestURI().startsWith(req.getContextPath() + "/" + run.getUrl() + getUrlName() + "/");
+    }
+
+    /**
+     * Whether the current request is for a page rather than for the remote API, whose clients
+     * poll on their own schedule and should not keep these results refreshing in the background.
+     */
+    private static boolean isPageView() {
+        StaplerRequest2 req = Stapler.getCurrentRequest2();
+        if (req == null) {
+            return true;
+        }
+        String rest = req.getRestOfPath();
+        return !rest.equals("/api") && !rest.startsWith("/api/");
     }
 
     @Override
@@ -138,14 +543,30 @@ public abstract class AbstractRealtimeTestResultAction extends AbstractTestResul
             detachAllFrom(run);
             throw new HttpRedirect(run.getUrl());
         }
-        if (getResult() != null) {
-            return getResult();
+        if (isPageView()) {
+            viewed();
+        }
+        TestResult result = getResult();
+        if (result != null) {
+            return result;
         }
         return new TestResult();
     }
 
     public TestProgress getTestProgress() {
-        return progress;
+        return snapshot().getProgress();
+    }
+
+    @Override
+    public Object readResolve() {
+        if (result != null) {
+            // saved by an older version, which kept the last result in the build; serve it until the next parse
+            result.setParentAction(this);
+            snapshot = RealtimeSnapshot.of(result, previousResultTestsCount, previousResultTestsTime, 0);
+            result = null;
+            progress = null;
+        }
+        return super.readResolve();
     }
 
     static void saveBuild(Run<?, ?> build) {
@@ -24,6 +24,7 @@
 package org.jenkinsci.plugins.junitrealtimetestreporter;
 
 import hudson.Extension;
+import hudson.matrix.MatrixBuild;
 import hudson.model.TaskListener;
 import hudson.model.AbstractBuild;
 import hudson.model.Run;
@@ -46,7 +47,13 @@ public class Attacher extends RunListener<Run<?, ?>> {
 
         if (!isApplicable(build)) return;
 
-        build.addAction(new RealtimeTestResultAction());
+        if (isMavenModuleSetBuild(build)) {
+            build.addAction(new MavenModuleSetRealtimeTestResultAction());
+        } else if (build instanceof MatrixBuild) {
+            build.addAction(new MatrixRealtimeTestResultAction());
+        } else {
+            build.addAction(new RealtimeTestResultAction());
+        }
         AbstractRealtimeTestResultAction.saveBuild(run);
     }
 
@@ -59,7 +66,7 @@ public class Attacher extends RunListener<Run<?, ?>> {
 
         if (!PerJobConfiguration.isActive(build.getParent())) return false;
 
-        if (build.getClass().getName().equals("hudson.maven.MavenModuleSetBuild")) {
+        if (isMavenModuleSetBuild(build)) {
             return true;
         }
 
@@ -67,4 +74,9 @@ public class Attacher extends RunListener<Run<?, ?>> {
 
         return true;
     }
+
+    // Not using instanceof as maven-plugin is optional
+    private static boolean isMavenModuleSetBuild(final AbstractBuild<?, ?> build) {
+        return build.getClass().getName().equals("hudson.maven.MavenModuleSetBuild");
+    }
 }
@@ -0,0 +1,247 @@
+/*
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.junitrealtimetestreporter;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.tasks.junit.CaseResult;
+import hudson.tasks.junit.SuiteResult;
+import hudson.tasks.junit.TestResult;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact per-case view of a realtime result: one row per test case, in the order the suites list them.
+ *
+ * Durations and statuses are kept in primitive arrays and package, class and case names as ids into a
+ * dictionary of distinct strings, so counters, the failure list and progress can be served without walking the
+ * {@link TestResult} object graph. {@link CaseResult}s are only looked up for the rows actually rendered.
+ *
+ * Dictionary entries are interned controller-wide, so the identifiers of a job's tests are held once however
+ * many of its builds are running and however often they are parsed again.
+ */
+final class ColumnarResult {
+
+    static final byte PASSED = 0;
+    static final byte FAILED = 1;
+    static final byte SKIPPED = 2;
+
+    /**
+     * Package, class and test names of all realtime results; weak so names of tests that no longer run go away.
+     */
+    private static final Interner<String> IDENTIFIERS = Interners.newWeakInterner();
+
+    static final ColumnarResult EMPTY = new ColumnarResult(new String[0], new int[0], new int[0], new int[0], new float[0], new byte[0], 0, 0, 0, 0);
+
+    private final String[] dictionary;
+    private final int[] packageIds;
+    private final int[] classIds;
+    private final int[] nameIds;
+    private final float[] durations;
+    private final byte[] statuses;
+    private final int totalCount;
+    private final int failCount;
+    private final int skipCount;
+    private final float duration;
+
+    private ColumnarResult(String[] dictionary, int[] packageIds, int[] classIds, int[] nameIds, float[] durations, byte[] statuses,
+                           int totalCount, int failCount, int skipCount, float duration) {
+        this.dictionary = dictionary;
+        this.packageIds = packageIds;
+        this.classIds = classIds;
+        this.nameIds = nameIds;
+        this.durations = durations;
+        this.statuses = statuses;
+        this.totalCount = totalCount;
+        this.failCount = failCount;
+        this.skipCount = skipCount;
+        this.duration = duration;
+    }
+
+    /**
+     * Columns of a tallied result.
+     */
+    static ColumnarResult of(@NonNull TestResult result) {
+        Builder b = new Builder();
+        for (SuiteResult suite : result.getSuites()) {
+            for (CaseResult c : suite.getCases()) {
+                b.add(c);
+            }
+        }
+        return b.build(result.getTotalCount(), result.getFailCount(), result.getSkipCount(), result.getDuration());
+    }
+
+    int size() {
+        return statuses.length;
+    }
+
+    /**
+     * Rough number of bytes held by the columns. Identifiers shared with other results are counted as well,
+     * so this errs on the high side.
+     */
+    long estimateSize() {
+        long size = 64 + 8L * dictionary.length;
+        for (String identifier : dictionary) {
+            size += 40 + identifier.length();
+        }
+        size += 4L * (packageIds.length + classIds.length + nameIds.length + durations.length + failed.length) + statuses.length;
+        return size;
+    }
+
+    int getTotalCount() {
+        return totalCount;
+    }
+
+    int getFailCount() {
+        return failCount;
+    }
+
+    int getSkipCount() {
+        return skipCount;
+    }
+
+    float getDuration() {
+        return duration;
+    }
+
+    byte status(int row) {
+        return statuses[row];
+    }
+
+    float duration(int row) {
+        return durations[row];
+    }
+
+    String packageName(int row) {
+        return dictionary[packageIds[row]];
+    }
+
+    String className(int row) {
+        return dictionary[classIds[row]];
+    }
+
+    String name(int row) {
+        return dictionary[nameIds[row]];
+    }
+
+    /**
+     * Same as {@link CaseResult#getFullName}.
+     */
+    String fullName(int row) {
+        return className(row) + '.' + name(row);
+    }
+
+    /**
+     * Rows of failed cases, in row order.
+     */
+    int[] failedRows() {
+        int[] rows = new int[size()];
+        int n = 0;
+        for (int row = 0; row < rows.length; row++) {
+            if (statuses[row] == FAILED) {
+                rows[n++] = row;
+            }
+        }
+        return Arrays.copyOf(rows, n);
+    }
+
+    /**
+     * The cases behind the given rows, looked up in one pass over the result these columns were built from.
+     */
+    static List<CaseResult> resolve(@NonNull TestResult result, int[] rows) {
+        int[] sorted = rows.clone();
+        Arrays.sort(sorted);
+        Map<Integer, CaseResult> found = new HashMap<>();
+        int row = 0;
+        int next = 0;
+        outer:
+        for (SuiteResult suite : result.getSuites()) {
+            for (CaseResult c : suite.getCases()) {
+                if (next == sorted.length) {
+                    break outer;
+                }
+                if (row == sorted[next]) {
+                    found.put(row, c);
+                    while (next < sorted.length && sorted[next] == row) {
+                        next++;
+                    }
+                }
+                row++;
+            }
+        }
+        List<CaseResult> cases = new ArrayList<>(rows.length);
+        for (int r : rows) {
+            cases.add(found.get(r));
+        }
+        return cases;
+    }
+
+    private static final class Builder {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> dictionary = new ArrayList<>();
+        private int[] packageIds = new int[16];
+        private int[] classIds = new int[16];
+        private int[] nameIds = new int[16];
+        private float[] durations = new float[16];
+        private byte[] statuses = new byte[16];
+        private int size;
+
+        void add(CaseResult c) {
+            if (size == statuses.length) {
+                int capacity = size * 2;
+                packageIds = Arrays.copyOf(packageIds, capacity);
+                classIds = Arrays.copyOf(classIds, capacity);
+                nameIds = Arrays.copyOf(nameIds, capacity);
+                durations = Arrays.copyOf(durations, capacity);
+                statuses = Arrays.copyOf(statuses, capacity);
+            }
+            packageIds[size] = id(c.getPackageName());
+            classIds[size] = id(c.getClassName());
+            nameIds[size] = id(c.getName());
+            durations[size] = c.getDuration();
+            statuses[size] = c.isSkipped() ? SKIPPED : c.isPassed() ? PASSED : FAILED;
+            size++;
+        }
+
+        private int id(String s) {
+            String key = s != null ? s : "";
+            Integer id = ids.get(key);
+            if (id == null) {
+                id = dictionary.size();
+                dictionary.add(IDENTIFIERS.intern(key));
+                ids.put(key, id);
+            }
+            return id;
+        }
+
+        ColumnarResult build(int totalCount, int failCount, int skipCount, float duration) {
+            return new ColumnarResult(dictionary.toArray(new String[0]),
+                    Arrays.copyOf(packageIds, size), Arrays.copyOf(classIds, size), Arrays.copyOf(nameIds, size),
+                    Arrays.copyOf(durations, size), Arrays.copyOf(statuses, size),
+                    totalCount, failCount, skipCount, duration);
+        }
+    }
+}
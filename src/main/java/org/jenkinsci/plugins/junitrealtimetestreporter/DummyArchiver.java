@@ -32,8 +32,15 @@ import hudson.tasks.junit.JUnitResultArchiver;
  */
 /*package*/ class DummyArchiver extends JUnitResultArchiver {
 
+    /*package*/ static final String TEST_RESULTS = "**/target/surefire-reports/*.xml";
+
+    /**
+     * Reports of a single module, relative to its basedir.
+     */
+    /*package*/ static final String MODULE_TEST_RESULTS = "target/surefire-reports/*.xml";
+
     /*package*/ DummyArchiver() {
 
-        super("**/target/surefire-reports/*.xml", true, null);
+        super(TEST_RESULTS, true, null);
     }
 }
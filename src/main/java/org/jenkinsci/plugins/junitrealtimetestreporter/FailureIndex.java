@@ -0,0 +1,456 @@
+/*
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.junitrealtimetestreporter;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.tasks.junit.CaseResult;
+import hudson.tasks.junit.TestResult;
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Failed tests of one realtime result, sorted once so huge failure lists can be paged through.
+ *
+ * Each order is computed on first use and then shared by all requests reading the same result.
+ * Orders are kept as positions only; the {@link CaseResult}s are looked up for the tests actually returned.
+ * An index built over {@link ColumnarResult columns} sorts, filters and names failures even once the result
+ * was reclaimed; only the cases themselves are then missing until the result is parsed again.
+ */
+public final class FailureIndex {
+
+    public static final FailureIndex EMPTY = new FailureIndex(Collections.<CaseResult>emptyList());
+
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    public enum Order {
+        NAME, AGE, DURATION;
+
+        @NonNull
+        public static Order parse(@CheckForNull String name) {
+            if (name != null) {
+                for (Order o : values()) {
+                    if (o.name().equalsIgnoreCase(name)) {
+                        return o;
+                    }
+                }
+            }
+            return NAME;
+        }
+    }
+
+    private final Rows rows;
+    private final Map<Order, int[]> sorted = new EnumMap<>(Order.class);
+
+    public FailureIndex(@NonNull List<CaseResult> failed) {
+        this(new CaseRows(failed));
+    }
+
+    /**
+     * Failed tests of the given columns, looked up in the referenced result when returned.
+     * Sorting and filtering only use the columns, so they keep working once the result is reclaimed.
+     */
+    FailureIndex(@NonNull ColumnarResult columns, @NonNull Reference<TestResult> result) {
+        this(new ColumnRows(columns, result));
+    }
+
+    private FailureIndex(Rows rows) {
+        this.rows = rows;
+    }
+
+    /**
+     * Failed tests of all given indices, looked up in the index they come from.
+     */
+    static FailureIndex concat(@NonNull List<FailureIndex> indices) {
+        List<Rows> parts = new ArrayList<>(indices.size());
+        for (FailureIndex index : indices) {
+            parts.add(index.rows);
+        }
+        return new FailureIndex(new ConcatRows(parts));
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    /**
+     * All failed tests in the given order. The returned list must not be modified, and holds {@code null} for
+     * tests whose result was reclaimed.
+     */
+    @NonNull
+    public List<CaseResult> get(@NonNull Order order) {
+        return Collections.unmodifiableList(rows.resolve(sorted(order)));
+    }
+
+    /**
+     * One page of failed tests, optionally limited to those whose full name contains {@code filter} ignoring case.
+     */
+    @NonNull
+    public Page page(@NonNull Order order, @CheckForNull String filter, int start, int limit) {
+        if (limit <= 0) {
+            limit = DEFAULT_PAGE_SIZE;
+        }
+        limit = Math.min(limit, MAX_PAGE_SIZE);
+        start = Math.max(start, 0);
+
+        int[] all = sorted(order);
+        if (filter == null || filter.isEmpty()) {
+            int from = Math.min(start, all.length);
+            int to = Math.min(from + limit, all.length);
+            return new Page(rows, Arrays.copyOfRange(all, from, to), start, all.length);
+        }
+
+        String needle = filter.toLowerCase(Locale.ENGLISH);
+        int[] items = new int[limit];
+        int count = 0;
+        int matched = 0;
+        for (int i : all) {
+            String name = rows.fullName(i);
+            if (name == null || !name.toLowerCase(Locale.ENGLISH).contains(needle)) {
+                continue;
+            }
+            if (matched >= start && count < limit) {
+                items[count++] = i;
+            }
+            matched++;
+        }
+        return new Page(rows, Arrays.copyOf(items, count), start, matched);
+    }
+
+    private int[] sorted(Order order) {
+        synchronized (sorted) {
+            int[] indices = sorted.get(order);
+            if (indices == null) {
+                indices = sort(order);
+                if (indices == null) {
+                    // ages are only known from the cases, so try again once they are all at hand
+                    return sorted(Order.NAME);
+                }
+                sorted.put(order, indices);
+            }
+            return indices;
+        }
+    }
+
+    @CheckForNull
+    private int[] sort(Order order) {
+        int n = rows.size();
+        String[] names = new String[n];
+        Integer[] boxed = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            names[i] = rows.fullName(i);
+            boxed[i] = i;
+        }
+        Comparator<Integer> byName = Comparator.comparing(i -> names[i], Comparator.nullsFirst(Comparator.<String>naturalOrder()));
+        Comparator<Integer> comparator;
+        switch (order) {
+            case AGE:
+                int[] ages = rows.ages();
+                if (ages == null) {
+                    return null;
+                }
+                comparator = Comparator.<Integer>comparingInt(i -> ages[i]).reversed().thenComparing(byName);
+                break;
+            case DURATION:
+                comparator = Comparator.<Integer>comparingDouble(i -> rows.duration(i)).reversed().thenComparing(byName);
+                break;
+            default:
+                comparator = byName;
+        }
+        Arrays.sort(boxed, comparator);
+        int[] indices = new int[n];
+        for (int i = 0; i < n; i++) {
+            indices[i] = boxed[i];
+        }
+        return indices;
+    }
+
+    /**
+     * The failed tests, by position.
+     */
+    private interface Rows {
+        int size();
+
+        String fullName(int i);
+
+        float duration(int i);
+
+        /**
+         * Age of each failed test, or {@code null} if some of the cases are not at hand.
+         */
+        @CheckForNull
+        int[] ages();
+
+        /**
+         * The cases at the given positions, {@code null} where the result was reclaimed.
+         */
+        List<CaseResult> resolve(int[] indices);
+    }
+
+    private static final class CaseRows implements Rows {
+        private final List<CaseResult> failed;
+
+        CaseRows(List<CaseResult> failed) {
+            this.failed = failed;
+        }
+
+        @Override
+        public int size() {
+            return failed.size();
+        }
+
+        @Override
+        public String fullName(int i) {
+            return failed.get(i).getFullName();
+        }
+
+        @Override
+        public float duration(int i) {
+            return failed.get(i).getDuration();
+        }
+
+        @Override
+        public int[] ages() {
+            int[] ages = new int[failed.size()];
+            for (int i = 0; i < ages.length; i++) {
+                ages[i] = failed.get(i).getAge();
+            }
+            return ages;
+        }
+
+        @Override
+        public List<CaseResult> resolve(int[] indices) {
+            List<CaseResult> cases = new ArrayList<>(indices.length);
+            for (int i : indices) {
+                cases.add(failed.get(i));
+            }
+            return cases;
+        }
+    }
+
+    private static final class ColumnRows implements Rows {
+        private final ColumnarResult columns;
+        private final Reference<TestResult> result;
+        private final int[] failed;
+
+        ColumnRows(ColumnarResult columns, Reference<TestResult> result) {
+            this.columns = columns;
+            this.result = result;
+            this.failed = columns.failedRows();
+        }
+
+        @Override
+        public int size() {
+            return failed.length;
+        }
+
+        @Override
+        public String fullName(int i) {
+            return columns.fullName(failed[i]);
+        }
+
+        @Override
+        public float duration(int i) {
+            return columns.duration(failed[i]);
+        }
+
+        @Override
+        public int[] ages() {
+            // the age is found in previous builds, so there is nothing to gain over asking each case
+            List<CaseResult> cases = resolve(identity(failed.length));
+            int[] ages = new int[cases.size()];
+            for (int i = 0; i < ages.length; i++) {
+                CaseResult c = cases.get(i);
+                if (c == null) {
+                    return null;
+                }
+                ages[i] = c.getAge();
+            }
+            return ages;
+        }
+
+        @Override
+        public List<CaseResult> resolve(int[] indices) {
+            int[] rows = new int[indices.length];
+            for (int i = 0; i < indices.length; i++) {
+                rows[i] = failed[indices[i]];
+            }
+            TestResult r = result.get();
+            if (r == null) {
+                return Arrays.asList(new CaseResult[indices.length]);
+            }
+            return ColumnarResult.resolve(r, rows);
+        }
+
+        private static int[] identity(int n) {
+            int[] indices = new int[n];
+            for (int i = 0; i < n; i++) {
+                indices[i] = i;
+            }
+            return indices;
+        }
+    }
+
+    /**
+     * Rows of several indices one after the other, such as the branches of a Pipeline.
+     */
+    private static final class ConcatRows implements Rows {
+        private final List<Rows> parts;
+        /** Position of the first row of each part, and the total size last. */
+        private final int[] offsets;
+
+        ConcatRows(List<Rows> parts) {
+            this.parts = parts;
+            this.offsets = new int[parts.size() + 1];
+            for (int p = 0; p < parts.size(); p++) {
+                offsets[p + 1] = offsets[p] + parts.get(p).size();
+            }
+        }
+
+        private int part(int i) {
+            // there are few parts, one per branch
+            int p = 0;
+            while (offsets[p + 1] <= i) {
+                p++;
+            }
+            return p;
+        }
+
+        @Override
+        public int size() {
+            return offsets[parts.size()];
+        }
+
+        @Override
+        public String fullName(int i) {
+            int p = part(i);
+            return parts.get(p).fullName(i - offsets[p]);
+        }
+
+        @Override
+        public float duration(int i) {
+            int p = part(i);
+            return parts.get(p).duration(i - offsets[p]);
+        }
+
+        @Override
+        public int[] ages() {
+            int[] ages = new int[size()];
+            for (int p = 0; p < parts.size(); p++) {
+                int[] part = parts.get(p).ages();
+                if (part == null) {
+                    return null;
+                }
+                System.arraycopy(part, 0, ages, offsets[p], part.length);
+            }
+            return ages;
+        }
+
+        @Override
+        public List<CaseResult> resolve(int[] indices) {
+            CaseResult[] cases = new CaseResult[indices.length];
+            // one lookup per part, as each has to walk its result
+            for (int p = 0; p < parts.size(); p++) {
+                int n = 0;
+                int[] positions = new int[indices.length];
+                int[] local = new int[indices.length];
+                for (int k = 0; k < indices.length; k++) {
+                    if (indices[k] >= offsets[p] && indices[k] < offsets[p + 1]) {
+                        positions[n] = k;
+                        local[n++] = indices[k] - offsets[p];
+                    }
+                }
+                if (n > 0) {
+                    List<CaseResult> found = parts.get(p).resolve(Arrays.copyOf(local, n));
+                    for (int k = 0; k < n; k++) {
+                        cases[positions[k]] = found.get(k);
+                    }
+                }
+            }
+            return Arrays.asList(cases);
+        }
+    }
+
+    public static final class Page {
+        private final Rows rows;
+        private final int[] indices;
+        private final int start;
+        private final int total;
+        private List<CaseResult> items;
+
+        Page(Rows rows, int[] indices, int start, int total) {
+            this.rows = rows;
+            this.indices = indices;
+            this.start = start;
+            this.total = total;
+        }
+
+        /**
+         * Number of failed tests on this page.
+         */
+        public int size() {
+            return indices.length;
+        }
+
+        /**
+         * Full name of the failed test at the given position of this page, known even once its result was reclaimed.
+         */
+        public String getName(int i) {
+            return rows.fullName(indices[i]);
+        }
+
+        public float getDuration(int i) {
+            return rows.duration(indices[i]);
+        }
+
+        /**
+         * The failed tests of this page, {@code null} where the result was reclaimed.
+         * Callers should hold the result while reading the cases.
+         */
+        @NonNull
+        public synchronized List<CaseResult> getItems() {
+            if (items == null) {
+                items = Collections.unmodifiableList(rows.resolve(indices));
+            }
+            return items;
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        /**
+         * Number of failed tests matching the filter, across all pages.
+         */
+        public int getTotal() {
+            return total;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.junitrealtimetestreporter;
+
+import hudson.AbortException;
+import hudson.FilePath;
+import hudson.matrix.MatrixBuild;
+import hudson.matrix.MatrixRun;
+import hudson.model.Computer;
+import hudson.tasks.junit.JUnitResultArchiver;
+import hudson.tasks.junit.TestResult;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Realtime results of a matrix build, merged from the reports of its configurations.
+ *
+ * Each configuration is parsed in its own workspace, on the agent it runs on, and all configurations are
+ * parsed in parallel, so a refresh takes as long as the slowest configuration rather than the sum of them.
+ * Configurations that finished are parsed one last time and then kept as they are.
+ *
+ * A configuration failing to parse does not hold back the others: what they have is published, and the failure is
+ * then thrown so that refreshing backs off and reports the problem as for any other action.
+ */
+public class MatrixRealtimeTestResultAction extends RealtimeTestResultAction {
+
+    private static final Logger LOGGER = Logger.getLogger(MatrixRealtimeTestResultAction.class.getName());
+
+    private transient Map<String, Configuration> configurations;
+    private transient ResultAggregator aggregator;
+
+    public MatrixRealtimeTestResultAction() {}
+
+    @Override
+    protected TestResult parse() throws IOException, InterruptedException {
+        final JUnitResultArchiver archiver = getArchiver(this.owner);
+        final Map<Configuration, Future<TestResult>> pending = new LinkedHashMap<>();
+        final List<Configuration> all = new ArrayList<>();
+        final ParseMetrics.Recorder recorder = ParseMetrics.Recorder.current();
+        for (final MatrixRun run : ((MatrixBuild) this.owner).getExactRuns()) {
+            final Configuration c = configuration(run);
+            all.add(c);
+            if (c.done && c.last() != null) {
+                continue;
+            }
+            final boolean finished = !run.isBuilding();
+            final FilePath workspace = run.getWorkspace();
+            if (workspace == null) {
+                continue;
+            }
+            pending.put(c, Computer.threadPoolForRemoting.submit(() -> {
+                ParseMetrics.Recorder.adopt(recorder);
+                try {
+                    TestResult result = c.scanner.scan(workspace, archiver.getTestResults(), archiver.isKeepLongStdio(), run.getTimeInMillis(), null, c.last(), getParseInterval());
+                    c.done = finished;
+                    return result;
+                } finally {
+                    ParseMetrics.Recorder.adopt(null);
+                }
+            }));
+        }
+
+        IOException failure = null;
+        for (Map.Entry<Configuration, Future<TestResult>> e : pending.entrySet()) {
+            try {
+                e.getKey().last = new SoftReference<>(e.getValue().get());
+            } catch (InterruptedException ex) {
+                // nobody is waiting for the other configurations anymore
+                for (Future<TestResult> f : pending.values()) {
+                    f.cancel(true);
+                }
+                throw ex;
+            } catch (ExecutionException ex) {
+                Throwable cause = ex.getCause();
+                if (cause instanceof ParseInProgressException) {
+                    LOGGER.log(Level.FINE, "Still parsing {0}, keeping its last result", e.getKey().id);
+                } else if (cause instanceof AbortException) {
+                    LOGGER.log(Level.FINE, "No reports in {0}: {1}", new Object[] {e.getKey().id, cause.getMessage()});
+                } else if (failure == null) {
+                    failure = cause instanceof IOException ? (IOException) cause : new IOException("Unable to parse " + e.getKey().id, cause);
+                } else {
+                    failure.addSuppressed(cause);
+                }
+            }
+        }
+
+        List<TestResult> results = new ArrayList<>();
+        for (Configuration c : all) {
+            TestResult last = c.last();
+            if (last != null) {
+                results.add(last);
+            }
+        }
+        if (results.isEmpty()) {
+            if (failure != null) {
+                throw failure;
+            }
+            throw new AbortException("No reports in any configuration of " + this.owner);
+        }
+        long merging = System.nanoTime();
+        TestResult merged = aggregator().merge(results);
+        if (recorder != null) {
+            recorder.merge(System.nanoTime() - merging);
+        }
+        if (failure != null) {
+            if (merged != getLastResult()) {
+                publish(merged);
+            }
+            throw failure;
+        }
+        return merged;
+    }
+
+    private synchronized Configuration configuration(MatrixRun run) {
+        if (configurations == null) {
+            configurations = new ConcurrentHashMap<>();
+        }
+        return configurations.computeIfAbsent(run.getExternalizableId(), Configuration::new);
+    }
+
+    private synchronized ResultAggregator aggregator() {
+        if (aggregator == null) {
+            aggregator = new ResultAggregator();
+        }
+        return aggregator;
+    }
+
+    private static final class Configuration {
+        private final String id;
+        private final ReportScanner scanner = new ReportScanner();
+        /** Softly held like the results of realtime snapshots; parsed again once reclaimed, even if done. */
+        private volatile SoftReference<TestResult> last = new SoftReference<>(null);
+        /** Parsed after the configuration finished, so its reports will not change anymore. */
+        private volatile boolean done;
+
+        Configuration(String id) {
+            this.id = id;
+        }
+
+        TestResult last() {
+            return last.get();
+        }
+    }
+}
@@ -23,35 +23,103 @@
  */
 package org.jenkinsci.plugins.junitrealtimetestreporter;
 
+import hudson.AbortException;
 import hudson.Extension;
+import hudson.Util;
 import hudson.maven.MavenBuildProxy;
 import hudson.maven.MavenBuildProxy.BuildCallable;
 import hudson.maven.MavenReporter;
 import hudson.maven.MavenReporterDescriptor;
 import hudson.maven.MavenBuild;
 import hudson.maven.MavenModule;
+import hudson.maven.MojoInfo;
 import hudson.model.BuildListener;
+import hudson.tasks.junit.TestResult;
+import hudson.tasks.test.PipelineTestDetails;
 
+import java.io.File;
 import java.io.IOException;
 
 import org.apache.maven.project.MavenProject;
+import org.apache.tools.ant.DirectoryScanner;
+import org.codehaus.plexus.component.configurator.ComponentConfigurationException;
 
 /**
  * Attach and detach temporary action on Maven module build.
  *
+ * Around each surefire execution the action is told where the reports are written, and once the
+ * execution is over its reports are parsed right here in the Maven process and pushed to the action,
+ * so the action does not need to poll the workspace until the next execution starts.
+ *
  * @author ogondza
  */
 public class MavenAttacher extends MavenReporter {
 
+    private static final long serialVersionUID = 1L;
+
+    /** When the current module started, on the clock of the Maven process. */
+    private transient long moduleStarted;
+
     @Override
     public boolean enterModule(
             MavenBuildProxy proxy, MavenProject pom, BuildListener listener
     ) throws InterruptedException, IOException {
 
-        if (!proxy.isArchivingDisabled()) proxy.execute(new Attach());
+        moduleStarted = System.currentTimeMillis();
+        if (!proxy.isArchivingDisabled()) proxy.execute(new Attach(pom.getBasedir().getAbsolutePath()));
+        return true;
+    }
+
+    @Override
+    public boolean preExecute(
+            MavenBuildProxy proxy, MavenProject pom, MojoInfo mojo, BuildListener listener
+    ) throws InterruptedException, IOException {
+
+        File reportsDirectory = getReportsDirectory(mojo);
+        if (reportsDirectory != null && !proxy.isArchivingDisabled()) {
+            proxy.execute(new Watch(reportsDirectory.getAbsolutePath()));
+        }
+        return true;
+    }
+
+    @Override
+    public boolean postExecute(
+            MavenBuildProxy proxy, MavenProject pom, MojoInfo mojo, BuildListener listener, Throwable error
+    ) throws InterruptedException, IOException {
+
+        File reportsDirectory = getReportsDirectory(mojo);
+        if (reportsDirectory == null || proxy.isArchivingDisabled() || !reportsDirectory.isDirectory()) {
+            return true;
+        }
+
+        DirectoryScanner ds = Util.createFileSet(reportsDirectory, "*.xml").getDirectoryScanner();
+        if (ds.getIncludedFilesCount() == 0) {
+            return true;
+        }
+        try {
+            TestResult result = new TestResult(moduleStarted, ds, true, (PipelineTestDetails) null);
+            result.tally();
+            proxy.execute(new Publish(result));
+        } catch (AbortException ex) {
+            // only reports left over from an earlier build
+        }
         return true;
     }
 
+    /**
+     * Reports directory of a surefire test execution, {@code null} for other mojos.
+     */
+    private static File getReportsDirectory(MojoInfo mojo) {
+        if (!mojo.is("org.apache.maven.plugins", "maven-surefire-plugin", "test")) {
+            return null;
+        }
+        try {
+            return mojo.getConfigurationValue("reportsDirectory", File.class);
+        } catch (ComponentConfigurationException ex) {
+            return null;
+        }
+    }
+
     @Override
     public boolean leaveModule(
             MavenBuildProxy proxy, MavenProject pom, BuildListener listener
@@ -63,17 +131,67 @@ public class MavenAttacher extends MavenReporter {
 
     private static class Attach implements BuildCallable<Void, IOException> {
 
+        private static final long serialVersionUID = 1L;
+
+        private final String moduleRoot;
+
+        private Attach(String moduleRoot) {
+            this.moduleRoot = moduleRoot;
+        }
+
         public Void call(MavenBuild build) throws IOException, InterruptedException {
 
             if (PerJobConfiguration.isActive(build.getParent())) {
 
-                build.addAction(new RealtimeTestResultAction());
+                build.addAction(new RealtimeTestResultAction(moduleRoot));
                 AbstractRealtimeTestResultAction.saveBuild(build);
             }
             return null;
         }
     }
 
+    private static class Watch implements BuildCallable<Void, IOException> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String reportsDirectory;
+
+        private Watch(String reportsDirectory) {
+            this.reportsDirectory = reportsDirectory;
+        }
+
+        public Void call(MavenBuild build) throws IOException, InterruptedException {
+
+            RealtimeTestResultAction action = build.getAction(RealtimeTestResultAction.class);
+            if (action != null) {
+
+                action.executionStarted(reportsDirectory);
+            }
+            return null;
+        }
+    }
+
+    private static class Publish implements BuildCallable<Void, IOException> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final TestResult result;
+
+        private Publish(TestResult result) {
+            this.result = result;
+        }
+
+        public Void call(MavenBuild build) throws IOException, InterruptedException {
+
+            RealtimeTestResultAction action = build.getAction(RealtimeTestResultAction.class);
+            if (action != null) {
+
+                action.executionFinished(result);
+            }
+            return null;
+        }
+    }
+
     private static class Detach implements BuildCallable<Void, IOException> {
 
         public Void call(MavenBuild build) throws IOException, InterruptedException {
@@ -0,0 +1,129 @@
+/*
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.junitrealtimetestreporter;
+
+import hudson.AbortException;
+import hudson.maven.MavenBuild;
+import hudson.maven.MavenModuleSetBuild;
+import hudson.tasks.junit.TestResult;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Realtime results of a whole Maven reactor, merged from the realtime actions of its module builds.
+ *
+ * Every report is parsed once by the module it belongs to; this action only sums up what the modules last
+ * published, without refreshing them itself. Counters, progress and failures cost a pass over the module snapshots;
+ * their results are only merged into one for the test report. Viewing this action marks the modules as viewed
+ * instead, so that they are refreshed in the background while its pages are watched.
+ */
+public class MavenModuleSetRealtimeTestResultAction extends RealtimeTestResultAction {
+
+    private transient ResultAggregator aggregator;
+    private transient volatile RealtimeSummary summary;
+
+    public MavenModuleSetRealtimeTestResultAction() {}
+
+    @Override
+    protected TestResult parse() throws IOException, InterruptedException {
+        List<TestResult> results = new ArrayList<>();
+        for (RealtimeTestResultAction action : modules()) {
+            TestResult result = action.snapshot().getResult();
+            if (result != null) {
+                results.add(result);
+            }
+        }
+        if (results.isEmpty()) {
+            throw new AbortException("No module of " + this.owner + " has realtime results yet");
+        }
+        return aggregator().merge(results);
+    }
+
+    @Override
+    /*package*/ RealtimeSnapshot refresh(boolean needResult) {
+        // the snapshot of this action only serves the merged result
+        return needResult ? super.refresh(true) : snapshot();
+    }
+
+    @Override
+    public int getFailCount() {
+        return summary().getFailCount();
+    }
+
+    @Override
+    public int getTotalCount() {
+        return summary().getTotalCount();
+    }
+
+    @Override
+    public int getSkipCount() {
+        return summary().getSkipCount();
+    }
+
+    @Override
+    public TestProgress getTestProgress() {
+        return summary().getProgress();
+    }
+
+    @Override
+    public FailureIndex getFailureIndex() {
+        return summary().getFailureIndex();
+    }
+
+    private RealtimeSummary summary() {
+        List<RealtimeSnapshot> snapshots = new ArrayList<>();
+        for (RealtimeTestResultAction action : modules()) {
+            snapshots.add(action.snapshot());
+        }
+        RealtimeSummary last = summary;
+        RealtimeSummary current = last != null ? last.update(snapshots) : RealtimeSummary.of(snapshots);
+        summary = current;
+        return current;
+    }
+
+    @Override
+    /*package*/ void viewed() {
+        super.viewed();
+        for (RealtimeTestResultAction action : modules()) {
+            action.viewed();
+        }
+    }
+
+    private List<RealtimeTestResultAction> modules() {
+        List<RealtimeTestResultAction> actions = new ArrayList<>();
+        for (MavenBuild module : ((MavenModuleSetBuild) this.owner).getModuleLastBuilds().values()) {
+            RealtimeTestResultAction action = module.getAction(RealtimeTestResultAction.class);
+            if (action != null) {
+                actions.add(action);
+            }
+        }
+        return actions;
+    }
+
+    private synchronized ResultAggregator aggregator() {
+        if (aggregator == null) {
+            aggregator = new ResultAggregator();
+        }
+        return aggregator;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.junitrealtimetestreporter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The metrics of the last few refreshes of one action, and how often it got away without parsing.
+ * Hits are counted without locking, as every read of the action is one.
+ */
+final class ParseHistory {
+
+    static final int SIZE = 20;
+
+    private final ParseMetrics[] ring = new ParseMetrics[SIZE];
+    private int next;
+    private int count;
+    private final LongAdder hits = new LongAdder();
+    private long misses;
+
+    void hit() {
+        hits.increment();
+    }
+
+    synchronized void add(ParseMetrics metrics) {
+        misses++;
+        ring[next] = metrics;
+        next = (next + 1) % ring.length;
+        count = Math.min(count + 1, ring.length);
+    }
+
+    long getHits() {
+        return hits.sum();
+    }
+
+    synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Most recent first.
+     */
+    synchronized List<ParseMetrics> get() {
+        List<ParseMetrics> list = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            list.add(ring[(next - i + ring.length) % ring.length]);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.junitrealtimetestreporter;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import hudson.FilePath;
+import hudson.model.Computer;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.kohsuke.stapler.export.Exported;
+import org.kohsuke.stapler.export.ExportedBean;
+
+/**
+ * Where the time of one realtime parse went, and how much it read.
+ */
+@ExportedBean(defaultVisibility = 3)
+public final class ParseMetrics {
+
+    public enum Outcome {
+        /** Reports were parsed into a new result. */
+        PARSED,
+        /** The agent found nothing changed since the last parse. */
+        UNCHANGED,
+        /** No workspace or no reports yet. */
+        NO_REPORTS,
+        /** The agent was still parsing when the wait ended; the next refresh collects the result. */
+        PENDING,
+        FAILED
+    }
+
+    private final long timestamp;
+    private final Outcome outcome;
+    private final long totalNanos;
+    private final long scanNanos;
+    private final long transferNanos;
+    private final long parseNanos;
+    private final long mergeNanos;
+    private final int files;
+    private final long bytes;
+    private final int casesAdded;
+
+    ParseMetrics(long timestamp, Outcome outcome, long totalNanos, long scanNanos, long transferNanos, long parseNanos, long mergeNanos,
+                 int files, long bytes, int casesAdded) {
+        this.timestamp = timestamp;
+        this.outcome = outcome;
+        this.totalNanos = totalNanos;
+        this.scanNanos = scanNanos;
+        this.transferNanos = transferNanos;
+        this.parseNanos = parseNanos;
+        this.mergeNanos = mergeNanos;
+        this.files = files;
+        this.bytes = bytes;
+        this.casesAdded = casesAdded;
+    }
+
+    /**
+     * When the refresh started, in milliseconds since the epoch.
+     */
+    @Exported
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public Date getDate() {
+        return new Date(timestamp);
+    }
+
+    @Exported
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    @Exported
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * Spent on the agent probing and walking the workspace.
+     */
+    @Exported
+    public long getScanNanos() {
+        return scanNanos;
+    }
+
+    /**
+     * Spent in the remote call beyond the work on the agent: latency and (de)serializing the result.
+     */
+    @Exported
+    public long getTransferNanos() {
+        return transferNanos;
+    }
+
+    /**
+     * Spent on the agent parsing reports.
+     */
+    @Exported
+    public long getParseNanos() {
+        return parseNanos;
+    }
+
+    /**
+     * Spent on the controller merging results and building the snapshot.
+     */
+    @Exported
+    public long getMergeNanos() {
+        return mergeNanos;
+    }
+
+    @Exported
+    public int getFiles() {
+        return files;
+    }
+
+    @Exported
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Difference in the number of cases with the previous snapshot.
+     */
+    @Exported
+    public int getCasesAdded() {
+        return casesAdded;
+    }
+
+    public long getTotalMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(totalNanos);
+    }
+
+    /**
+     * Collects the figures of the refresh running on the current thread, from wherever they become known.
+     */
+    static final class Recorder {
+
+        private static final ThreadLocal<Recorder> CURRENT = new ThreadLocal<>();
+
+        private final long timestamp = System.currentTimeMillis();
+        private final long started = System.nanoTime();
+        private long scanNanos;
+        private long transferNanos;
+        private long parseNanos;
+        private long mergeNanos;
+        private int files;
+        private long bytes;
+        private final Set<FilePath> workspaces = new LinkedHashSet<>();
+        private final Set<String> globs = new LinkedHashSet<>();
+
+        static Recorder start() {
+            Recorder r = new Recorder();
+            CURRENT.set(r);
+            return r;
+        }
+
+        /**
+         * The recorder of the refresh running on this thread, if any.
+         */
+        @CheckForNull
+        static Recorder current() {
+            return CURRENT.get();
+        }
+
+        /**
+         * Lets a task running on another thread on behalf of a refresh report into its recorder.
+         *
+         * @param recorder as obtained from {@link #current} on the refreshing thread, or {@code null} to stop
+         */
+        static void adopt(@CheckForNull Recorder recorder) {
+            if (recorder != null) {
+                CURRENT.set(recorder);
+            } else {
+                CURRENT.remove();
+            }
+        }
+
+        /**
+         * Figures of one call to the agent. Adds up if several are made.
+         */
+        synchronized void agent(long scanNanos, long parseNanos, long callNanos, int files, long bytes) {
+            this.scanNanos += scanNanos;
+            this.parseNanos += parseNanos;
+            this.transferNanos += Math.max(0, callNanos - scanNanos - parseNanos);
+            this.files += files;
+            this.bytes += bytes;
+        }
+
+        /**
+         * Where the reports of one call to the agent were looked for.
+         */
+        synchronized void location(FilePath workspace, String glob) {
+            workspaces.add(workspace);
+            globs.add(glob);
+        }
+
+        synchronized void merge(long nanos) {
+            mergeNanos += nanos;
+        }
+
+        /**
+         * Names of the nodes whose workspaces were read, resolved now as that is not free.
+         */
+        synchronized String getNodes() {
+            StringBuilder b = new StringBuilder();
+            for (FilePath workspace : workspaces) {
+                Computer c = workspace.toComputer();
+                if (b.length() > 0) {
+                    b.append(", ");
+                }
+                b.append(c != null ? c.getDisplayName() : workspace.getRemote());
+            }
+            return b.toString();
+        }
+
+        synchronized String getGlobs() {
+            return String.join(", ", globs);
+        }
+
+        synchronized ParseMetrics stop(Outcome outcome, int casesAdded) {
+            CURRENT.remove();
+            return new ParseMetrics(timestamp, outcome, System.nanoTime() - started, scanNanos, transferNanos, parseNanos, mergeNanos,
+                    files, bytes, casesAdded);
+        }
+    }
+}
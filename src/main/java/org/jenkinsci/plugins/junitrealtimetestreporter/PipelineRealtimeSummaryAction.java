@@ -0,0 +1,228 @@
+/*
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.junitrealtimetestreporter;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.model.Action;
+import hudson.model.Run;
+import hudson.tasks.junit.CaseResult;
+import hudson.tasks.junit.TestResult;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import jenkins.model.TransientActionFactory;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+import org.kohsuke.stapler.HttpResponse;
+import org.kohsuke.stapler.HttpResponses;
+import org.kohsuke.stapler.QueryParameter;
+import org.kohsuke.stapler.verb.GET;
+
+/**
+ * Build-wide view over all {@code realtimeJUnit} blocks of a running Pipeline, such as parallel branches.
+ *
+ * Only merges what each {@link PipelineRealtimeTestResultAction} already parsed, so it costs a pass over
+ * the branches and never touches the workspace.
+ */
+public class PipelineRealtimeSummaryAction implements Action {
+
+    private static final Map<Run<?, ?>, RealtimeSummary> SUMMARIES = new WeakHashMap<>();
+
+    private final Run<?, ?> run;
+
+    PipelineRealtimeSummaryAction(Run<?, ?> run) {
+        this.run = run;
+    }
+
+    public Run<?, ?> getRun() {
+        return run;
+    }
+
+    @Override
+    public String getIconFileName() {
+        return "clipboard.png";
+    }
+
+    @Override
+    public String getDisplayName() {
+        return Messages.PipelineRealtimeSummaryAction_realtime_test_summary();
+    }
+
+    @Override
+    public String getUrlName() {
+        return "realtimeTestSummary";
+    }
+
+    /**
+     * Current figures of each block, as last parsed.
+     */
+    @NonNull
+    public List<Branch> getBranches() {
+        List<Branch> branches = new ArrayList<>();
+        for (PipelineRealtimeTestResultAction action : branches(run)) {
+            // this page never parses, so have the blocks it shows kept fresh in the background
+            action.viewed();
+            branches.add(new Branch(action));
+        }
+        return branches;
+    }
+
+    public int getTotalCount() {
+        return summary().getTotalCount();
+    }
+
+    public int getFailCount() {
+        return summary().getFailCount();
+    }
+
+    public int getSkipCount() {
+        return summary().getSkipCount();
+    }
+
+    @CheckForNull
+    public TestProgress getTestProgress() {
+        return summary().getProgress();
+    }
+
+    /**
+     * Failed tests of all branches, as {@link AbstractRealtimeTestResultAction#doFailures} lists them for one.
+     */
+    @GET
+    public HttpResponse doFailures(@QueryParameter String sort, @QueryParameter int start, @QueryParameter int limit, @QueryParameter String filter) {
+        Map<TestResult, String> urls = new IdentityHashMap<>();
+        for (PipelineRealtimeTestResultAction branch : branches(run)) {
+            TestResult result = branch.snapshot().getResult();
+            if (result != null) {
+                urls.put(result, branch.getUrlName());
+            }
+        }
+        FailureIndex.Page page = summary().getFailureIndex().page(FailureIndex.Order.parse(sort), filter, start, limit);
+        JSONArray failures = new JSONArray();
+        List<CaseResult> cases = page.getItems();
+        for (int i = 0; i < page.size(); i++) {
+            JSONObject o = new JSONObject();
+            o.put("name", page.getName(i));
+            o.put("duration", page.getDuration(i));
+            CaseResult c = cases.get(i);
+            String url = c != null ? urls.get(c.getTestResult()) : null;
+            if (url != null) {
+                // the rest is only known while the branch result is in memory
+                o.put("url", url + "/" + c.getRelativePathFrom(c.getTestResult()));
+                o.put("age", c.getAge());
+                o.put("errorDetails", c.getErrorDetails());
+            }
+            failures.add(o);
+        }
+        JSONObject json = new JSONObject();
+        json.put("start", page.getStart());
+        json.put("total", page.getTotal());
+        json.put("failures", failures);
+        return HttpResponses.okJSON(json);
+    }
+
+    private RealtimeSummary summary() {
+        List<RealtimeSnapshot> snapshots = new ArrayList<>();
+        for (PipelineRealtimeTestResultAction branch : branches(run)) {
+            snapshots.add(branch.snapshot());
+        }
+        synchronized (SUMMARIES) {
+            RealtimeSummary last = SUMMARIES.get(run);
+            RealtimeSummary summary = last != null ? last.update(snapshots) : RealtimeSummary.of(snapshots);
+            if (summary != last) {
+                SUMMARIES.put(run, summary);
+            }
+            return summary;
+        }
+    }
+
+    private static List<PipelineRealtimeTestResultAction> branches(Run<?, ?> run) {
+        List<PipelineRealtimeTestResultAction> branches = new ArrayList<>();
+        // persisted actions only; Run.getActions(Class) would ask the factory below again
+        for (Action a : run.getActions()) {
+            if (a instanceof PipelineRealtimeTestResultAction) {
+                branches.add((PipelineRealtimeTestResultAction) a);
+            }
+        }
+        return branches;
+    }
+
+    public static final class Branch {
+
+        private final PipelineRealtimeTestResultAction action;
+        private final ColumnarResult columns;
+
+        Branch(PipelineRealtimeTestResultAction action) {
+            this.action = action;
+            this.columns = action.snapshot().getColumns();
+        }
+
+        public String getUrlName() {
+            return action.getUrlName();
+        }
+
+        public String getDisplayName() {
+            return action.getDisplayName();
+        }
+
+        public int getTotalCount() {
+            return columns.getTotalCount();
+        }
+
+        public int getFailCount() {
+            return columns.getFailCount();
+        }
+
+        public int getSkipCount() {
+            return columns.getSkipCount();
+        }
+
+        @CheckForNull
+        public String getProblem() {
+            return action.getProblem();
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    @Extension
+    public static final class Factory extends TransientActionFactory<Run> {
+
+        @Override
+        public Class<Run> type() {
+            return Run.class;
+        }
+
+        @NonNull
+        @Override
+        public Collection<? extends Action> createFor(@NonNull Run target) {
+            if (!target.isBuilding() || branches(target).size() < 2) {
+                return Collections.emptySet();
+            }
+            return Collections.singleton(new PipelineRealtimeSummaryAction(target));
+        }
+    }
+}
@@ -27,8 +27,7 @@ package org.jenkinsci.plugins.junitrealtimetestreporter;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
 import hudson.AbortException;
 import hudson.FilePath;
-import hudson.model.TaskListener;
-import hudson.tasks.junit.JUnitParser;
+import hudson.remoting.VirtualChannel;
 import hudson.tasks.junit.TestResult;
 import hudson.tasks.junit.pipeline.JUnitResultsStepExecution;
 import hudson.tasks.test.PipelineTestDetails;
@@ -43,8 +42,6 @@ import org.jenkinsci.plugins.workflow.flow.FlowExecutionOwner;
 import org.jenkinsci.plugins.workflow.graph.FlowNode;
 import org.jenkinsci.plugins.workflow.steps.StepContext;
 
-import static java.util.Objects.requireNonNull;
-
 public class PipelineRealtimeTestResultAction extends AbstractRealtimeTestResultAction {
 
     private static final Logger LOGGER = Logger.getLogger(PipelineRealtimeTestResultAction.class.getName());
@@ -57,6 +54,13 @@ public class PipelineRealtimeTestResultAction extends AbstractRealtimeTestResult
     @CheckForNull
     private transient final StepContext context;
     private final Long parseInterval;
+    /**
+     * Where the block sits in the flow graph, resolved when the step starts as walking the graph is expensive on big
+     * pipelines. The enclosing blocks of a running step never change. Actions saved by older versions resolve it on
+     * their first parse instead, and keep it until the build is saved anyway.
+     */
+    @CheckForNull
+    private volatile PipelineTestDetails pipelineTestDetails;
 
     PipelineRealtimeTestResultAction(
             String id,
@@ -65,7 +69,7 @@ public class PipelineRealtimeTestResultAction extends AbstractRealtimeTestResult
             String glob,
             StepContext context,
             Long parseInterval
-    ) {
+    ) throws IOException, InterruptedException {
         this.id = id;
         node = FilePathUtils.getNodeName(ws);
         workspace = ws.getRemote();
@@ -73,6 +77,8 @@ public class PipelineRealtimeTestResultAction extends AbstractRealtimeTestResult
         this.glob = glob;
         this.context = context;
         this.parseInterval = parseInterval;
+        FlowNode flowNode = context.get(FlowNode.class);
+        this.pipelineTestDetails = flowNode != null ? details(id, flowNode) : null;
     }
 
     @Override
@@ -98,46 +104,72 @@ public class PipelineRealtimeTestResultAction extends AbstractRealtimeTestResult
     @Override
     protected TestResult parse() throws IOException, InterruptedException {
         FilePath ws = FilePathUtils.find(node, workspace);
-        if (ws != null && ws.isDirectory()) {
-            LOGGER.log(Level.FINE, "parsing {0} in {1} on node {2} for {3}", new Object[] {glob, workspace, node, run});
-
-            FlowNode node = null;
-            TaskListener listener = TaskListener.NULL;
-            // lots of boilerplate code to get access to the flow node and listener but without saving
-            // the StepContext via xstream in case of restarts, we default to using step context if it's available though
-            if (context != null) {
-                node = context.get(FlowNode.class);
-                listener = context.get(TaskListener.class);
-            } else {
-                if (this.run instanceof FlowExecutionOwner.Executable) {
-                    FlowExecutionOwner.Executable executable = (FlowExecutionOwner.Executable) this.run;
-                    FlowExecutionOwner flowOwner = executable.asFlowExecutionOwner();
-                    if (flowOwner != null) {
-                        FlowExecution flowExecution = flowOwner.getOrNull();
-                        if (flowExecution != null) {
-                            node = flowExecution.getNode(id);
-                        }
-                        listener = flowOwner.getListener();
-                    }
-                }
-            }
+        if (ws == null) {
+            throw new AbortException("skipping parse in nonexistent workspace for " +  run);
+        }
+        LOGGER.log(Level.FINE, "parsing {0} in {1} on node {2} for {3}", new Object[] {glob, workspace, node, run});
 
-            PipelineTestDetails pipelineTestDetails = null;
-            if (node != null) {
-                List<FlowNode> enclosingBlocks = JUnitResultsStepExecution
-                        .getEnclosingStagesAndParallels(requireNonNull(node));
+        PipelineTestDetails pipelineTestDetails = getPipelineTestDetails();
 
-                pipelineTestDetails = new PipelineTestDetails();
-                pipelineTestDetails.setNodeId(id);
-                pipelineTestDetails.setEnclosingBlocks(JUnitResultsStepExecution.getEnclosingBlockIds(enclosingBlocks));
-                pipelineTestDetails.setEnclosingBlockNames(JUnitResultsStepExecution.getEnclosingBlockNames(enclosingBlocks));
-            }
+        // workspace check, scan and parse in one round-trip, shared with other blocks reading this workspace
+        return SharedReportScan.of(run, node, workspace).scan(id,
+                new RealtimeParseCallable.Member(glob, keepLongStdio, pipelineTestDetails), ws, run.getTimeInMillis(), getLastResult(), getParseInterval(), getRefreshInterval());
+    }
+
+    @CheckForNull
+    @Override
+    protected VirtualChannel getReportChannel() {
+        FilePath ws = FilePathUtils.find(node, workspace);
+        return ws != null ? ws.getChannel() : null;
+    }
+
+    /**
+     * Stops sharing scans of the workspace with other blocks.
+     */
+    /*package*/ void release() {
+        SharedReportScan.release(run, node, workspace, id);
+        clear();
+    }
 
-            return new JUnitParser(keepLongStdio, true)
-                    .parseResult(glob, this.run, pipelineTestDetails, ws, null, listener);
+    @CheckForNull
+    private PipelineTestDetails getPipelineTestDetails() throws IOException, InterruptedException {
+        PipelineTestDetails details = pipelineTestDetails;
+        if (details != null) {
+            return details;
+        }
+
+        FlowNode node = null;
+        // lots of boilerplate code to get access to the flow node but without saving
+        // the StepContext via xstream in case of restarts, we default to using step context if it's available though
+        if (context != null) {
+            node = context.get(FlowNode.class);
         } else {
-            throw new AbortException("skipping parse in nonexistent workspace for " +  run);
+            if (this.run instanceof FlowExecutionOwner.Executable) {
+                FlowExecutionOwner.Executable executable = (FlowExecutionOwner.Executable) this.run;
+                FlowExecutionOwner flowOwner = executable.asFlowExecutionOwner();
+                if (flowOwner != null) {
+                    FlowExecution flowExecution = flowOwner.getOrNull();
+                    if (flowExecution != null) {
+                        node = flowExecution.getNode(id);
+                    }
+                }
+            }
         }
+        if (node == null) {
+            return null;
+        }
+        details = details(id, node);
+        pipelineTestDetails = details;
+        return details;
+    }
+
+    private static PipelineTestDetails details(String id, FlowNode node) {
+        List<FlowNode> enclosingBlocks = JUnitResultsStepExecution.getEnclosingStagesAndParallels(node);
+        PipelineTestDetails details = new PipelineTestDetails();
+        details.setNodeId(id);
+        details.setEnclosingBlocks(JUnitResultsStepExecution.getEnclosingBlockIds(enclosingBlocks));
+        details.setEnclosingBlockNames(JUnitResultsStepExecution.getEnclosingBlockNames(enclosingBlocks));
+        return details;
     }
 
     @CheckForNull
@@ -302,6 +302,7 @@ public class RealtimeJUnitStep extends Step {
             if (a.id.equals(id)) {
                 provisional = a.getResult();
                 r.removeAction(a);
+                a.release();
                 LOGGER.log(Level.FINE, "clearing {0} from {1}", new Object[]{id, r});
                 AbstractRealtimeTestResultAction.saveBuild(r);
                 break;
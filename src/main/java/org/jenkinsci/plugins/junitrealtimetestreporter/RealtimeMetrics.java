@@ -0,0 +1,190 @@
+/*
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.junitrealtimetestreporter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import jenkins.util.SystemProperties;
+
+/**
+ * Controller-wide counters of what realtime results cost, which every action reports into.
+ *
+ * Kept deliberately cheap to update: refreshes add to counters and to a histogram of fixed buckets,
+ * anything derived is computed when read.
+ */
+final class RealtimeMetrics {
+
+    static final RealtimeMetrics INSTANCE = new RealtimeMetrics();
+
+    /**
+     * Assumed heap cost of each case of a parsed result still in memory, for the estimate of what the plugin holds.
+     */
+    static long CASE_BYTES = SystemProperties.getLong(RealtimeMetrics.class.getName() + ".caseBytes", 600L);
+
+    private final Set<AbstractRealtimeTestResultAction> actions = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder[] outcomes = new LongAdder[ParseMetrics.Outcome.values().length];
+    private final Histogram latency = new Histogram();
+    private final PerMinute parses = new PerMinute();
+    private final AtomicInteger queued = new AtomicInteger();
+
+    RealtimeMetrics() {
+        for (int i = 0; i < outcomes.length; i++) {
+            outcomes[i] = new LongAdder();
+        }
+    }
+
+    void register(AbstractRealtimeTestResultAction action) {
+        actions.add(action);
+    }
+
+    void hit() {
+        hits.increment();
+    }
+
+    void record(ParseMetrics metrics) {
+        outcomes[metrics.getOutcome().ordinal()].increment();
+        latency.add(TimeUnit.NANOSECONDS.toMillis(metrics.getTotalNanos()));
+        parses.add(metrics.getTimestamp());
+    }
+
+    void queued() {
+        queued.incrementAndGet();
+    }
+
+    void dequeued() {
+        queued.decrementAndGet();
+    }
+
+    /**
+     * Actions of builds still running.
+     */
+    List<AbstractRealtimeTestResultAction> getLiveActions() {
+        List<AbstractRealtimeTestResultAction> live;
+        synchronized (actions) {
+            live = new ArrayList<>(actions);
+        }
+        live.removeIf(a -> a.run == null || !a.run.isBuilding());
+        return live;
+    }
+
+    long getCacheHits() {
+        return hits.sum();
+    }
+
+    long getCount(ParseMetrics.Outcome outcome) {
+        return outcomes[outcome.ordinal()].sum();
+    }
+
+    int getParsesPerMinute() {
+        return parses.get(System.currentTimeMillis());
+    }
+
+    /**
+     * Upper bound of the refresh time of the given fraction of refreshes, in milliseconds.
+     */
+    long getLatency(double quantile) {
+        return latency.quantile(quantile);
+    }
+
+    int getQueued() {
+        return queued.get();
+    }
+
+    /**
+     * Counts in buckets of powers of two, which is precise enough to tell a slow parse from a fast one.
+     */
+    static final class Histogram {
+
+        private final LongAdder[] buckets = new LongAdder[64];
+
+        Histogram() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void add(long value) {
+            buckets[64 - Long.numberOfLeadingZeros(Math.max(0, value))].increment();
+        }
+
+        /**
+         * Upper bound of the bucket holding the given quantile, 0 if nothing was recorded.
+         */
+        long quantile(double quantile) {
+            long[] counts = new long[buckets.length];
+            long total = 0;
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = buckets[i].sum();
+                total += counts[i];
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(quantile * total);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank && counts[i] > 0) {
+                    return i == 0 ? 0 : (1L << i) - 1;
+                }
+            }
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Events over the last minute, counted per second.
+     */
+    static final class PerMinute {
+
+        private final long[] seconds = new long[60];
+        private final int[] counts = new int[60];
+
+        synchronized void add(long time) {
+            long second = TimeUnit.MILLISECONDS.toSeconds(time);
+            int i = (int) (second % seconds.length);
+            if (seconds[i] != second) {
+                seconds[i] = second;
+                counts[i] = 0;
+            }
+            counts[i]++;
+        }
+
+        synchronized int get(long now) {
+            long second = TimeUnit.MILLISECONDS.toSeconds(now);
+            int total = 0;
+            for (int i = 0; i < seconds.length; i++) {
+                if (second - seconds[i] < seconds.length) {
+                    total += counts[i];
+                }
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,496 @@
+/*
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.junitrealtimetestreporter;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.AbortException;
+import hudson.Util;
+import hudson.remoting.VirtualChannel;
+import hudson.tasks.junit.TestResult;
+import hudson.tasks.test.PipelineTestDetails;
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import jenkins.MasterToSlaveFileCallable;
+import org.apache.tools.ant.DirectoryScanner;
+import org.apache.tools.ant.types.selectors.SelectorUtils;
+
+/**
+ * Checks the workspace, scans it and parses the reports in a single call to the agent.
+ *
+ * Behaves like {@link hudson.tasks.junit.JUnitParser} with empty results allowed, except that a missing
+ * workspace is reported as an {@link AbortException} from the agent rather than by a separate round-trip.
+ *
+ * When given the probes of the previous call, cheap fingerprints of the directories involved are computed
+ * first and the scan and parse are skipped if they did not change.
+ *
+ * Unless asked for a full scan, only the directories that contained reports last time are scanned, as long as
+ * nothing changed directly in the literal roots of the glob. This avoids walking the whole workspace for
+ * patterns such as {@code **}{@code /target/surefire-reports/*.xml}.
+ *
+ * Several {@link Member}s reading the same workspace can be served by one call: the union of their globs is
+ * scanned once, and each member gets its own result made of the reports its own glob matches.
+ *
+ * Reports are parsed one by one within a time and byte budget; a parse exceeding either is abandoned with a
+ * {@link ParseBudgetExceededException} naming the report responsible, rather than holding the agent for minutes.
+ */
+final class RealtimeParseCallable extends MasterToSlaveFileCallable<RealtimeParseCallable.Outcome> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<Member> members;
+    private final String glob;
+    private final long buildTime;
+    private final long nowMaster;
+    /** Directories that contained reports last time, relative to the workspace. */
+    private final List<String> reportDirs;
+    @CheckForNull
+    private final Long lastRootsProbe;
+    @CheckForNull
+    private final Long lastDirsProbe;
+    private final boolean fullScan;
+    /** Most milliseconds to spend parsing, or 0 for no limit. */
+    private final long timeBudget;
+    /** Most bytes of reports to parse, or 0 for no limit. */
+    private final long byteBudget;
+
+    RealtimeParseCallable(List<Member> members, long buildTime,
+                          List<String> reportDirs, @CheckForNull Long lastRootsProbe, @CheckForNull Long lastDirsProbe, boolean fullScan,
+                          long timeBudget, long byteBudget) {
+        this.members = members;
+        this.glob = union(members);
+        this.buildTime = buildTime;
+        this.nowMaster = System.currentTimeMillis();
+        this.reportDirs = reportDirs;
+        this.lastRootsProbe = lastRootsProbe;
+        this.lastDirsProbe = lastDirsProbe;
+        this.fullScan = fullScan;
+        this.timeBudget = timeBudget;
+        this.byteBudget = byteBudget;
+    }
+
+    @Override
+    public Outcome invoke(File ws, VirtualChannel channel) throws IOException, InterruptedException {
+        if (!ws.isDirectory()) {
+            throw new AbortException("skipping parse in nonexistent workspace " + ws);
+        }
+        final long nowSlave = System.currentTimeMillis();
+        final long scanStarted = System.nanoTime();
+
+        // Taken before scanning, so anything written while we scan changes the next probe
+        List<String> none = Collections.emptyList();
+        long rootsProbe = probe(ws, roots(glob), none);
+        long dirsProbe = probe(ws, none, reportDirs);
+        boolean rootsChanged = lastRootsProbe == null || lastRootsProbe != rootsProbe;
+        // without known report directories the dirs probe is constant, so only a scan can tell whether reports appeared
+        if (!rootsChanged && !reportDirs.isEmpty() && lastDirsProbe != null && lastDirsProbe == dirsProbe) {
+            return new Outcome(null, rootsProbe, dirsProbe, reportDirs, false).timed(System.nanoTime() - scanStarted, 0, 0, 0);
+        }
+
+        boolean full = fullScan || rootsChanged || reportDirs.isEmpty();
+        String includes = full ? glob : scope(glob, reportDirs);
+        DirectoryScanner ds = Util.createFileSet(ws, includes).getDirectoryScanner();
+        List<TestResult> results = new ArrayList<>(members.size());
+        if (ds.getIncludedFilesCount() == 0) {
+            for (int i = 0; i < members.size(); i++) {
+                results.add(new TestResult());
+            }
+            return new Outcome(results, rootsProbe, dirsProbe, none, full).timed(System.nanoTime() - scanStarted, 0, 0, 0);
+        }
+        long time = buildTime + (nowSlave - nowMaster);
+        String[] found = ds.getIncludedFiles();
+        String[] files = fresh(ws, found, time);
+        long bytes = checkSize(ws, files);
+        long parseStarted = System.nanoTime();
+        Budget budget = new Budget(nowSlave);
+        if (members.size() == 1) {
+            Member m = members.get(0);
+            TestResult result = new TestResult(m.keepLongStdio);
+            for (String file : files) {
+                budget.check(file);
+                result.parse(time, ws, m.pipelineTestDetails, new String[] {file});
+            }
+            result.tally();
+            results.add(result);
+        } else {
+            results.addAll(parseShared(ws, time, files, budget));
+        }
+        long parsed = System.nanoTime();
+        return new Outcome(results, rootsProbe, dirsProbe, parentDirs(found), full)
+                .timed(parseStarted - scanStarted, parsed - parseStarted, files.length, bytes);
+    }
+
+    /**
+     * Reports written during this build, with the same margin {@link TestResult#parse} allows.
+     * Each report is parsed on its own and that call fails when given nothing new, so older ones left in the
+     * workspace are dropped here; only if none is new does the whole parse fail, as it would in one call.
+     */
+    private static String[] fresh(File ws, String[] files, long time) throws AbortException {
+        List<String> fresh = new ArrayList<>(files.length);
+        for (String file : files) {
+            if (time - 3000 <= new File(ws, file).lastModified()) {
+                fresh.add(file);
+            }
+        }
+        if (fresh.isEmpty()) {
+            throw new AbortException("Test reports were found but none of them are new");
+        }
+        return fresh.toArray(new String[0]);
+    }
+
+    /**
+     * @return the total size of the reports
+     */
+    private long checkSize(File ws, String[] files) throws ParseBudgetExceededException {
+        long total = 0;
+        long largest = -1;
+        String largestFile = null;
+        for (String file : files) {
+            long length = new File(ws, file).length();
+            total += length;
+            if (length > largest) {
+                largest = length;
+                largestFile = file;
+            }
+        }
+        if (byteBudget > 0 && total > byteBudget) {
+            throw new ParseBudgetExceededException("Reports total " + total + " bytes, more than the " + byteBudget + " allowed; largest is " + largest + " bytes", largestFile);
+        }
+        return total;
+    }
+
+    /**
+     * Checked between reports, so that a parse past its deadline or cancelled by the controller stops early.
+     */
+    private final class Budget {
+
+        private final long started;
+        private long slowest = -1;
+        private String slowestFile;
+        private String previousFile;
+        private long previousStart;
+
+        Budget(long started) {
+            this.started = started;
+            this.previousStart = started;
+        }
+
+        void check(String file) throws IOException, InterruptedException {
+            long now = System.currentTimeMillis();
+            if (previousFile != null && now - previousStart > slowest) {
+                slowest = now - previousStart;
+                slowestFile = previousFile;
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException("Parse cancelled while at " + file);
+            }
+            if (timeBudget > 0 && now - started > timeBudget) {
+                throw new ParseBudgetExceededException("Parsing took more than " + timeBudget + "ms; slowest report took " + slowest + "ms", slowestFile);
+            }
+            previousFile = file;
+            previousStart = now;
+        }
+    }
+
+    /**
+     * Parses every report into the result of each member whose glob matches it, with the details of that member,
+     * as the node and enclosing blocks recorded in suites differ from one block to another.
+     * Results never share suites, as tallying or merging one would change the others.
+     */
+    private List<TestResult> parseShared(File ws, long time, String[] files, Budget budget) throws IOException, InterruptedException {
+        List<TestResult> results = new ArrayList<>(members.size());
+        for (Member m : members) {
+            results.add(new TestResult(m.keepLongStdio));
+        }
+        for (String file : files) {
+            for (int i = 0; i < members.size(); i++) {
+                Member m = members.get(i);
+                // reports found by a scope wider than the member globs are skipped
+                if (m.matches(file)) {
+                    budget.check(file);
+                    results.get(i).parse(time, ws, m.pipelineTestDetails, new String[] {file});
+                }
+            }
+        }
+        for (TestResult result : results) {
+            result.tally();
+        }
+        return results;
+    }
+
+    /**
+     * All patterns of the member globs, once each.
+     */
+    static String union(List<Member> members) {
+        Set<String> patterns = new LinkedHashSet<>();
+        for (Member m : members) {
+            for (String pattern : m.glob.split(",")) {
+                pattern = pattern.trim();
+                if (!pattern.isEmpty()) {
+                    patterns.add(pattern);
+                }
+            }
+        }
+        return String.join(",", patterns);
+    }
+
+    /**
+     * Rewrites the glob so that it only matches files directly inside the given directories,
+     * which lets Ant scan just those instead of walking from the root of each pattern.
+     * Patterns that cannot be narrowed this way are kept as they are.
+     */
+    static String scope(String glob, List<String> dirs) {
+        Set<String> includes = new LinkedHashSet<>();
+        for (String pattern : glob.split(",")) {
+            pattern = pattern.trim().replace('\\', '/');
+            if (pattern.isEmpty()) {
+                continue;
+            }
+            int slash = pattern.lastIndexOf('/');
+            String dirPattern = slash < 0 ? "." : pattern.substring(0, slash);
+            String namePattern = pattern.substring(slash + 1);
+            if (namePattern.isEmpty() || namePattern.contains("**")) {
+                includes.add(pattern);
+                continue;
+            }
+            for (String dir : dirs) {
+                if (dir.equals(".")) {
+                    // e.g. **/*.xml also matches reports directly in the workspace
+                    if (dirPattern.equals(".") || SelectorUtils.matchPath(dirPattern + "/x", "x")) {
+                        includes.add(namePattern);
+                    }
+                } else if (!dirPattern.equals(".") && SelectorUtils.matchPath(dirPattern, dir)) {
+                    includes.add(dir + "/" + namePattern);
+                }
+            }
+        }
+        // an empty include list would match everything
+        return includes.isEmpty() ? glob : String.join(",", includes);
+    }
+
+    /**
+     * Literal leading directories of each pattern, i.e. the part before the first wildcard.
+     */
+    static List<String> roots(String glob) {
+        Set<String> roots = new TreeSet<>();
+        for (String pattern : glob.split(",")) {
+            pattern = pattern.trim().replace('\\', '/');
+            if (pattern.isEmpty()) {
+                continue;
+            }
+            StringBuilder root = new StringBuilder();
+            String[] segments = pattern.split("/");
+            for (int i = 0; i < segments.length - 1; i++) {
+                if (segments[i].contains("*") || segments[i].contains("?")) {
+                    break;
+                }
+                if (root.length() > 0) {
+                    root.append('/');
+                }
+                root.append(segments[i]);
+            }
+            roots.add(root.length() > 0 ? root.toString() : ".");
+        }
+        return new ArrayList<>(roots);
+    }
+
+    static List<String> parentDirs(String[] files) {
+        Set<String> dirs = new TreeSet<>();
+        for (String file : files) {
+            String path = file.replace('\\', '/');
+            int slash = path.lastIndexOf('/');
+            dirs.add(slash < 0 ? "." : path.substring(0, slash));
+        }
+        return new ArrayList<>(dirs);
+    }
+
+    /**
+     * Fingerprint of the modification times of the given directories and of the size and modification
+     * time of every file directly inside the report directories.
+     * Creating, deleting, growing or rewriting a report there changes it.
+     */
+    static long probe(File ws, List<String> roots, List<String> reportDirs) {
+        long h = 17;
+        for (String root : roots) {
+            h = mix(h, new File(ws, root).lastModified());
+        }
+        for (String dir : reportDirs) {
+            File d = new File(ws, dir);
+            h = mix(h, d.lastModified());
+            File[] files = d.listFiles();
+            if (files == null) {
+                continue;
+            }
+            // listing order is not specified, so combine the files commutatively
+            long sum = 0;
+            for (File f : files) {
+                sum += mix(mix(f.getName().hashCode(), f.length()), f.lastModified());
+            }
+            h = mix(mix(h, files.length), sum);
+        }
+        return h;
+    }
+
+    private static long mix(long h, long v) {
+        h = (h ^ v) * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+
+    /**
+     * One action reading reports of the workspace.
+     */
+    static final class Member implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String glob;
+        private final boolean keepLongStdio;
+        @CheckForNull
+        private final PipelineTestDetails pipelineTestDetails;
+
+        Member(String glob, boolean keepLongStdio, @CheckForNull PipelineTestDetails pipelineTestDetails) {
+            this.glob = glob;
+            this.keepLongStdio = keepLongStdio;
+            this.pipelineTestDetails = pipelineTestDetails;
+        }
+
+        String getGlob() {
+            return glob;
+        }
+
+        /**
+         * This member, keeping only the trimmed output of test cases.
+         */
+        Member withoutLongStdio() {
+            return keepLongStdio ? new Member(glob, false, pipelineTestDetails) : this;
+        }
+
+        boolean matches(String file) {
+            String path = file.replace('\\', '/');
+            for (String pattern : glob.split(",")) {
+                pattern = pattern.trim().replace('\\', '/');
+                if (!pattern.isEmpty() && SelectorUtils.matchPath(pattern, path)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    static final class Outcome implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        @CheckForNull
+        private final List<TestResult> results;
+        private final long rootsProbe;
+        private final long dirsProbe;
+        private final List<String> reportDirs;
+        private final boolean fullScan;
+        private long scanNanos;
+        private long parseNanos;
+        private int files;
+        private long bytes;
+
+        Outcome(@CheckForNull List<TestResult> results, long rootsProbe, long dirsProbe, List<String> reportDirs, boolean fullScan) {
+            this.results = results;
+            this.rootsProbe = rootsProbe;
+            this.dirsProbe = dirsProbe;
+            this.reportDirs = reportDirs;
+            this.fullScan = fullScan;
+        }
+
+        /**
+         * Records where the time went on the agent.
+         */
+        Outcome timed(long scanNanos, long parseNanos, int files, long bytes) {
+            this.scanNanos = scanNanos;
+            this.parseNanos = parseNanos;
+            this.files = files;
+            this.bytes = bytes;
+            return this;
+        }
+
+        /**
+         * Time spent probing and scanning the workspace, in nanoseconds.
+         */
+        long getScanNanos() {
+            return scanNanos;
+        }
+
+        /**
+         * Time spent parsing reports, in nanoseconds.
+         */
+        long getParseNanos() {
+            return parseNanos;
+        }
+
+        /**
+         * Number of reports parsed.
+         */
+        int getFiles() {
+            return files;
+        }
+
+        /**
+         * Total size of the reports parsed.
+         */
+        long getBytes() {
+            return bytes;
+        }
+
+        /**
+         * The parsed result of each member, or {@code null} if nothing changed since the last call.
+         */
+        @CheckForNull
+        List<TestResult> getResults() {
+            return results;
+        }
+
+        long getRootsProbe() {
+            return rootsProbe;
+        }
+
+        long getDirsProbe() {
+            return dirsProbe;
+        }
+
+        /**
+         * Whether the whole glob was scanned rather than just the known report directories.
+         */
+        boolean isFullScan() {
+            return fullScan;
+        }
+
+        @NonNull
+        List<String> getReportDirs() {
+            return reportDirs;
+        }
+    }
+}
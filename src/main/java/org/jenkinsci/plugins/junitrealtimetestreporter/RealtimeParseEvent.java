@@ -0,0 +1,79 @@
+/*
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.junitrealtimetestreporter;
+
+import hudson.model.Run;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event spanning one refresh of realtime results that parsed or attempted to,
+ * so that controller stalls in a recording can be matched with the builds being parsed.
+ */
+@Name("org.jenkinsci.plugins.junitrealtimetestreporter.Parse")
+@Label("Realtime Test Results Parse")
+@Category({"Jenkins", "Realtime Test Reporter"})
+@Description("Refresh of the realtime test results of a build")
+@StackTrace(false)
+final class RealtimeParseEvent extends Event {
+
+    @Label("Run")
+    String run;
+
+    @Label("Node")
+    String node;
+
+    @Label("Glob")
+    String glob;
+
+    @Label("Files")
+    int files;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Outcome")
+    String outcome;
+
+    /**
+     * Ends the event and, if it is recorded, fills it in from the refresh.
+     */
+    void record(Run<?, ?> run, ParseMetrics.Recorder recorder, ParseMetrics metrics) {
+        end();
+        if (!shouldCommit()) {
+            return;
+        }
+        this.run = run != null ? run.getExternalizableId() : null;
+        this.node = recorder.getNodes();
+        this.glob = recorder.getGlobs();
+        this.files = metrics.getFiles();
+        this.bytes = metrics.getBytes();
+        this.outcome = metrics.getOutcome().name();
+        commit();
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.junitrealtimetestreporter;
+
+import hudson.Extension;
+import hudson.model.Computer;
+import hudson.model.PeriodicWork;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.util.SystemProperties;
+
+/**
+ * Refreshes the realtime results people are looking at in the background, so their pages find a fresh snapshot
+ * instead of waiting for a parse. Results nobody watches are only parsed when asked for, and less often.
+ */
+@Extension
+public final class RealtimeRefreshScheduler extends PeriodicWork {
+
+    private static final Logger LOGGER = Logger.getLogger(RealtimeRefreshScheduler.class.getName());
+
+    /**
+     * How often watched results are considered for a refresh, in milliseconds.
+     */
+    static long RECURRENCE = SystemProperties.getLong(RealtimeRefreshScheduler.class.getName() + ".recurrence", 5000L);
+
+    private static final Set<AbstractRealtimeTestResultAction> WATCHED =
+            Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+    static void watch(AbstractRealtimeTestResultAction action) {
+        WATCHED.add(action);
+    }
+
+    static void unwatch(AbstractRealtimeTestResultAction action) {
+        WATCHED.remove(action);
+    }
+
+    @Override
+    public long getRecurrencePeriod() {
+        return RECURRENCE;
+    }
+
+    @Override
+    protected void doRun() throws Exception {
+        List<AbstractRealtimeTestResultAction> watched;
+        synchronized (WATCHED) {
+            watched = new ArrayList<>(WATCHED);
+        }
+        for (AbstractRealtimeTestResultAction action : watched) {
+            if (!action.isWatched() || action.run == null || !action.run.isBuilding()) {
+                WATCHED.remove(action);
+                continue;
+            }
+            // refresh returns right away if the snapshot is fresh enough or another parse is running
+            RealtimeMetrics.INSTANCE.queued();
+            Computer.threadPoolForRemoting.submit(() -> {
+                RealtimeMetrics.INSTANCE.dequeued();
+                try {
+                    action.refresh(false);
+                } catch (RuntimeException x) {
+                    LOGGER.log(Level.WARNING, "Background refresh of " + action.run + " failed", x);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.junitrealtimetestreporter;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.tasks.junit.TestResult;
+import java.lang.ref.SoftReference;
+
+/**
+ * Everything a realtime action knows after one parse.
+ *
+ * Instances are immutable and replaced as a whole, so readers always see a result together with
+ * the columns, progress and failure index computed from it.
+ *
+ * Only those summaries are held strongly. The parsed result itself is softly referenced, so the JVM can reclaim
+ * the trees of builds nobody looks at under memory pressure; the action parses again when it is next needed.
+ */
+final class RealtimeSnapshot {
+
+    static final RealtimeSnapshot EMPTY = new RealtimeSnapshot(null, ColumnarResult.EMPTY, null, FailureIndex.EMPTY, 0, 0, -1, -1);
+
+    @CheckForNull
+    private final SoftReference<TestResult> result;
+    @NonNull
+    private final ColumnarResult columns;
+    @CheckForNull
+    private final TestProgress progress;
+    @NonNull
+    private final FailureIndex failureIndex;
+    private final long updated;
+    /** When refreshing started failing, or 0 if the last attempt succeeded. */
+    private final long staleSince;
+    private final int previousResultTestsCount;
+    private final float previousResultTestsTime;
+
+    private RealtimeSnapshot(SoftReference<TestResult> result, ColumnarResult columns, TestProgress progress, FailureIndex failureIndex, long updated, long staleSince, int previousResultTestsCount, float previousResultTestsTime) {
+        this.result = result;
+        this.columns = columns;
+        this.progress = progress;
+        this.failureIndex = failureIndex;
+        this.updated = updated;
+        this.staleSince = staleSince;
+        this.previousResultTestsCount = previousResultTestsCount;
+        this.previousResultTestsTime = previousResultTestsTime;
+    }
+
+    /**
+     * Snapshot of a freshly parsed result, keeping the previous build figures of this one.
+     */
+    RealtimeSnapshot next(@NonNull TestResult result, long updated) {
+        return of(result, previousResultTestsCount, previousResultTestsTime, updated);
+    }
+
+    /**
+     * This snapshot, confirmed to be current at the given time.
+     */
+    RealtimeSnapshot touch(long updated) {
+        return new RealtimeSnapshot(result, columns, progress, failureIndex, updated, 0, previousResultTestsCount, previousResultTestsTime);
+    }
+
+    /**
+     * This snapshot, marked as failing to refresh since the given time.
+     */
+    RealtimeSnapshot stale(long since) {
+        if (staleSince != 0) {
+            return this;
+        }
+        return new RealtimeSnapshot(result, columns, progress, failureIndex, updated, since, previousResultTestsCount, previousResultTestsTime);
+    }
+
+    /**
+     * Snapshot of a freshly parsed result, with the figures of the previous build, or -1 if there is none.
+     */
+    static RealtimeSnapshot of(@NonNull TestResult result, int previousCount, float previousTime, long updated) {
+        ColumnarResult columns = ColumnarResult.of(result);
+        TestProgress progress = previousCount != -1
+                ? new TestProgress(previousCount, previousTime, columns.getTotalCount(), columns.getDuration()) : null;
+        SoftReference<TestResult> ref = new SoftReference<>(result);
+        return new RealtimeSnapshot(ref, columns, progress, new FailureIndex(columns, ref), updated, 0, previousCount, previousTime);
+    }
+
+    /**
+     * The parsed result, or {@code null} before the first parse or once {@link #isReclaimed reclaimed}.
+     * Callers working on the result should keep it in a local variable rather than calling this again.
+     */
+    @CheckForNull
+    TestResult getResult() {
+        return result != null ? result.get() : null;
+    }
+
+    /**
+     * Whether a result was parsed but has since been reclaimed by the garbage collector.
+     */
+    boolean isReclaimed() {
+        return result != null && result.get() == null;
+    }
+
+    /**
+     * Rough number of bytes held, assuming {@code caseBytes} per case of a result still in memory.
+     */
+    long estimateSize(long caseBytes) {
+        // at most one sorted copy of the failed rows per order
+        long size = columns.estimateSize() + 4L * FailureIndex.Order.values().length * failureIndex.size();
+        if (result != null && result.get() != null) {
+            size += caseBytes * columns.size();
+        }
+        return size;
+    }
+
+    /**
+     * Per-case columns of the result, empty before the first parse.
+     */
+    @NonNull
+    ColumnarResult getColumns() {
+        return columns;
+    }
+
+    @CheckForNull
+    TestProgress getProgress() {
+        return progress;
+    }
+
+    @NonNull
+    FailureIndex getFailureIndex() {
+        return failureIndex;
+    }
+
+    /**
+     * Time of the parse in milliseconds, or 0 if never parsed.
+     */
+    long getUpdated() {
+        return updated;
+    }
+
+    /**
+     * Whether the last attempt to refresh failed, so that this is older than it should be.
+     */
+    boolean isStale() {
+        return staleSince != 0;
+    }
+}
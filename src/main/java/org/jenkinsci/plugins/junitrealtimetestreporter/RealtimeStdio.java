@@ -0,0 +1,156 @@
+/*
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.junitrealtimetestreporter;
+
+import hudson.FilePath;
+import hudson.remoting.RemoteOutputStream;
+import hudson.remoting.VirtualChannel;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import jenkins.MasterToSlaveFileCallable;
+import jenkins.util.SystemProperties;
+
+/**
+ * Output of realtime test cases, read from the report on the agent when asked for rather than kept in snapshots.
+ *
+ * With {@link #LAZY} set, realtime parses never keep long output, whatever the step or publisher says, so snapshots
+ * only hold the trimmed output JUnit keeps by default. The complete output of a case is streamed from its report,
+ * which the suite result points to, when a user asks for it.
+ */
+final class RealtimeStdio {
+
+    /**
+     * Parse realtime results without long output, serving it from the reports on demand.
+     */
+    static boolean LAZY = SystemProperties.getBoolean(RealtimeStdio.class.getName() + ".lazy");
+
+    private RealtimeStdio() {}
+
+    /**
+     * Copies the output of a case to {@code out}, falling back to the output of its suite like {@link hudson.tasks.junit.CaseResult#getStdout} does.
+     *
+     * @return whether any output was found
+     */
+    static boolean stream(FilePath report, String className, String name, boolean stderr, OutputStream out) throws IOException, InterruptedException {
+        return report.act(new Extract(className, name, stderr, new RemoteOutputStream(out)));
+    }
+
+    static final class Extract extends MasterToSlaveFileCallable<Boolean> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String className;
+        private final String name;
+        private final boolean stderr;
+        private final OutputStream out;
+
+        Extract(String className, String name, boolean stderr, OutputStream out) {
+            this.className = className;
+            this.name = name;
+            this.stderr = stderr;
+            this.out = out;
+        }
+
+        @Override
+        public Boolean invoke(File report, VirtualChannel channel) throws IOException, InterruptedException {
+            try (Writer w = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+                int[] suite = {-1};
+                return copy(report, -1, suite, w) || (suite[0] >= 0 && copy(report, suite[0], suite, w));
+            } catch (XMLStreamException x) {
+                throw new IOException("Failed to read " + report, x);
+            }
+        }
+
+        /**
+         * Copies the text of the wanted stream of either the case, or of the suite with the given ordinal if not negative.
+         *
+         * @param suite set to the ordinal of the suite enclosing the case when looking for the case
+         */
+        private boolean copy(File report, int ofSuite, int[] suite, Writer w) throws IOException, XMLStreamException {
+            boolean ofCase = ofSuite < 0;
+            int suites = -1;
+            String element = stderr ? "system-err" : "system-out";
+            boolean found = false;
+            try (InputStream is = new FileInputStream(report)) {
+                XMLStreamReader r = factory().createXMLStreamReader(is);
+                try {
+                    // depth of the wanted testcase or testsuite once found
+                    int depth = 0;
+                    int target = -1;
+                    boolean copying = false;
+                    while (r.hasNext()) {
+                        int event = r.next();
+                        if (event == XMLStreamConstants.START_ELEMENT) {
+                            depth++;
+                            String local = r.getLocalName();
+                            if (local.equals("testsuite")) {
+                                suites++;
+                            }
+                            if (target < 0 && ofCase && local.equals("testcase")
+                                    && name.equals(r.getAttributeValue(null, "name"))
+                                    && className.equals(r.getAttributeValue(null, "classname"))) {
+                                target = depth;
+                                suite[0] = suites;
+                            } else if (target < 0 && !ofCase && local.equals("testsuite") && suites == ofSuite) {
+                                target = depth;
+                            } else if (target >= 0 && depth == target + 1 && local.equals(element)) {
+                                copying = true;
+                                found = true;
+                            }
+                        } else if (event == XMLStreamConstants.END_ELEMENT) {
+                            if (copying && depth == target + 1) {
+                                copying = false;
+                            } else if (depth == target) {
+                                return found;
+                            }
+                            depth--;
+                        } else if (copying && (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA)) {
+                            w.write(r.getTextCharacters(), r.getTextStart(), r.getTextLength());
+                        }
+                    }
+                } finally {
+                    r.close();
+                }
+            }
+            return found;
+        }
+
+        private static XMLInputFactory factory() {
+            XMLInputFactory f = XMLInputFactory.newFactory();
+            f.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+            f.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+            // keep memory bounded by the buffer, not by the length of the output
+            f.setProperty(XMLInputFactory.IS_COALESCING, false);
+            return f;
+        }
+    }
+}
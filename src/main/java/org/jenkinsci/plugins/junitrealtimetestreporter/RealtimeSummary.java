@@ -0,0 +1,125 @@
+/*
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.junitrealtimetestreporter;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Totals over the snapshots of several realtime actions, computed without parsing anything.
+ *
+ * Counters and progress cost a pass over the snapshots; the merged failure index is only built when asked for.
+ */
+final class RealtimeSummary {
+
+    static final RealtimeSummary EMPTY = new RealtimeSummary(Collections.emptyList());
+
+    private final List<RealtimeSnapshot> snapshots;
+    private final int totalCount;
+    private final int failCount;
+    private final int skipCount;
+    @CheckForNull
+    private final TestProgress progress;
+    /** Built over the columns of the branches, so it only refers to their results softly. */
+    @CheckForNull
+    private volatile FailureIndex failureIndex;
+
+    private RealtimeSummary(List<RealtimeSnapshot> snapshots) {
+        this.snapshots = snapshots;
+        int total = 0, fail = 0, skip = 0;
+        int expectedTests = 0, completedTests = 0;
+        float expectedTime = 0, completedTime = 0;
+        boolean anyProgress = false;
+        for (RealtimeSnapshot s : snapshots) {
+            ColumnarResult columns = s.getColumns();
+            total += columns.getTotalCount();
+            fail += columns.getFailCount();
+            skip += columns.getSkipCount();
+            TestProgress p = s.getProgress();
+            if (p != null) {
+                anyProgress = true;
+                expectedTests += p.getExpectedTests();
+                expectedTime += p.getExpectedTime();
+                completedTests += p.getCompletedTests();
+                completedTime += p.getCompletedTime();
+            }
+        }
+        this.totalCount = total;
+        this.failCount = fail;
+        this.skipCount = skip;
+        this.progress = anyProgress ? new TestProgress(expectedTests, expectedTime, completedTests, completedTime) : null;
+    }
+
+    static RealtimeSummary of(@NonNull List<RealtimeSnapshot> snapshots) {
+        return snapshots.isEmpty() ? EMPTY : new RealtimeSummary(snapshots);
+    }
+
+    /**
+     * This summary if it was computed from exactly these snapshots, a new one otherwise.
+     */
+    RealtimeSummary update(@NonNull List<RealtimeSnapshot> current) {
+        if (current.size() == snapshots.size()) {
+            boolean same = true;
+            for (int i = 0; i < current.size() && same; i++) {
+                same = current.get(i) == snapshots.get(i);
+            }
+            if (same) {
+                return this;
+            }
+        }
+        return of(current);
+    }
+
+    int getTotalCount() {
+        return totalCount;
+    }
+
+    int getFailCount() {
+        return failCount;
+    }
+
+    int getSkipCount() {
+        return skipCount;
+    }
+
+    @CheckForNull
+    TestProgress getProgress() {
+        return progress;
+    }
+
+    @NonNull
+    FailureIndex getFailureIndex() {
+        FailureIndex index = failureIndex;
+        if (index == null) {
+            List<FailureIndex> indices = new ArrayList<>(snapshots.size());
+            for (RealtimeSnapshot s : snapshots) {
+                indices.add(s.getFailureIndex());
+            }
+            index = FailureIndex.concat(indices);
+            failureIndex = index;
+        }
+        return index;
+    }
+}
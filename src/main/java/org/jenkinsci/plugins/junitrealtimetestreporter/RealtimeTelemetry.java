@@ -0,0 +1,212 @@
+/*
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.junitrealtimetestreporter;
+
+import hudson.Extension;
+import hudson.model.Api;
+import hudson.model.ManagementLink;
+import java.util.ArrayList;
+import java.util.List;
+import jenkins.model.Jenkins;
+import org.kohsuke.stapler.export.Exported;
+import org.kohsuke.stapler.export.ExportedBean;
+
+/**
+ * What realtime test results cost the controller, as a management page and its {@code api/json}.
+ */
+@Extension
+@ExportedBean
+public final class RealtimeTelemetry extends ManagementLink {
+
+    @Override
+    public String getIconFileName() {
+        return "clipboard.png";
+    }
+
+    @Override
+    public String getDisplayName() {
+        return Messages.RealtimeTelemetry_display_name();
+    }
+
+    @Override
+    public String getDescription() {
+        return Messages.RealtimeTelemetry_description();
+    }
+
+    @Override
+    public String getUrlName() {
+        return "realtimeTestReporter";
+    }
+
+    @Override
+    public Category getCategory() {
+        return Category.STATUS;
+    }
+
+    public Api getApi() {
+        Jenkins.get().checkPermission(Jenkins.ADMINISTER);
+        return new Api(this);
+    }
+
+    /**
+     * Realtime results of the builds still running.
+     */
+    @Exported(inline = true)
+    public List<Entry> getActions() {
+        List<Entry> entries = new ArrayList<>();
+        for (AbstractRealtimeTestResultAction action : RealtimeMetrics.INSTANCE.getLiveActions()) {
+            entries.add(new Entry(action));
+        }
+        return entries;
+    }
+
+    @Exported
+    public int getLiveActions() {
+        return RealtimeMetrics.INSTANCE.getLiveActions().size();
+    }
+
+    /**
+     * Rough number of bytes held by the realtime results of running builds.
+     */
+    @Exported
+    public long getEstimatedHeapBytes() {
+        long total = 0;
+        for (AbstractRealtimeTestResultAction action : RealtimeMetrics.INSTANCE.getLiveActions()) {
+            total += action.snapshot().estimateSize(RealtimeMetrics.CASE_BYTES);
+        }
+        return total;
+    }
+
+    /**
+     * Refreshes that parsed or attempted to over the last minute.
+     */
+    @Exported
+    public int getParsesPerMinute() {
+        return RealtimeMetrics.INSTANCE.getParsesPerMinute();
+    }
+
+    /**
+     * Median refresh time since startup in milliseconds, rounded up to the next power of two.
+     */
+    @Exported
+    public long getP50Millis() {
+        return RealtimeMetrics.INSTANCE.getLatency(0.5);
+    }
+
+    /**
+     * 99th percentile of refresh time since startup in milliseconds, rounded up to the next power of two.
+     */
+    @Exported
+    public long getP99Millis() {
+        return RealtimeMetrics.INSTANCE.getLatency(0.99);
+    }
+
+    /**
+     * Background refreshes waiting for a thread.
+     */
+    @Exported
+    public int getQueuedParses() {
+        return RealtimeMetrics.INSTANCE.getQueued();
+    }
+
+    @Exported
+    public int getRunningParses() {
+        int running = 0;
+        for (AbstractRealtimeTestResultAction action : RealtimeMetrics.INSTANCE.getLiveActions()) {
+            if (action.isParsing()) {
+                running++;
+            }
+        }
+        return running;
+    }
+
+    @Exported
+    public long getCacheHits() {
+        return RealtimeMetrics.INSTANCE.getCacheHits();
+    }
+
+    @Exported
+    public long getParsed() {
+        return RealtimeMetrics.INSTANCE.getCount(ParseMetrics.Outcome.PARSED);
+    }
+
+    @Exported
+    public long getUnchanged() {
+        return RealtimeMetrics.INSTANCE.getCount(ParseMetrics.Outcome.UNCHANGED);
+    }
+
+    @Exported
+    public long getNoReports() {
+        return RealtimeMetrics.INSTANCE.getCount(ParseMetrics.Outcome.NO_REPORTS);
+    }
+
+    @Exported
+    public long getFailed() {
+        return RealtimeMetrics.INSTANCE.getCount(ParseMetrics.Outcome.FAILED);
+    }
+
+    /**
+     * Realtime results of one running build.
+     */
+    @ExportedBean(defaultVisibility = 2)
+    public static final class Entry {
+
+        private final AbstractRealtimeTestResultAction action;
+
+        Entry(AbstractRealtimeTestResultAction action) {
+            this.action = action;
+        }
+
+        @Exported
+        public String getRun() {
+            return action.run.getFullDisplayName();
+        }
+
+        public String getUrl() {
+            return action.run.getUrl() + action.getUrlName() + "/";
+        }
+
+        @Exported
+        public int getTotalCount() {
+            return action.snapshot().getColumns().getTotalCount();
+        }
+
+        @Exported
+        public long getEstimatedHeapBytes() {
+            return action.snapshot().estimateSize(RealtimeMetrics.CASE_BYTES);
+        }
+
+        /**
+         * Duration of the last refresh that parsed or attempted to, in milliseconds, or -1 if none did yet.
+         */
+        @Exported
+        public long getLastParseMillis() {
+            List<ParseMetrics> metrics = action.getParseMetrics();
+            return metrics.isEmpty() ? -1 : metrics.get(0).getTotalMillis();
+        }
+
+        @Exported
+        public boolean isParsing() {
+            return action.isParsing();
+        }
+    }
+}
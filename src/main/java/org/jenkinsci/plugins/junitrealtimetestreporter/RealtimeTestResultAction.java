@@ -23,19 +23,21 @@
  */
 package org.jenkinsci.plugins.junitrealtimetestreporter;
 
-import hudson.Util;
-import hudson.matrix.MatrixBuild;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import hudson.AbortException;
+import hudson.FilePath;
 import hudson.model.AbstractBuild;
 import hudson.model.AbstractProject;
 import hudson.model.Action;
-import hudson.model.TaskListener;
-import hudson.tasks.junit.JUnitParser;
+import hudson.remoting.VirtualChannel;
 import hudson.tasks.junit.TestResultAction;
 import hudson.tasks.junit.JUnitResultArchiver;
 import hudson.tasks.junit.TestResult;
 
 import java.io.IOException;
-import java.util.Arrays;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.logging.Logger;
@@ -55,7 +57,42 @@ public class RealtimeTestResultAction extends AbstractRealtimeTestResultAction {
 
     private static final Logger LOGGER = Logger.getLogger(RealtimeTestResultAction.class.getName());
 
-    public RealtimeTestResultAction() {}
+    /**
+     * Basedir of the Maven module this action reports on, or {@code null} to parse the whole workspace.
+     */
+    @CheckForNull
+    private final String moduleRoot;
+
+    /**
+     * Reports directory of the surefire execution running in this module, if known.
+     */
+    @CheckForNull
+    private transient volatile String reportsDirectory;
+
+    /**
+     * Set once an execution pushed its final result; until the next one starts there is nothing to poll.
+     */
+    private transient volatile boolean settled;
+
+    /**
+     * Results pushed by the executions that finished in this module, in order; the reports of the running one are
+     * merged with them. Held strongly, as they cannot be parsed again from a single reports directory.
+     */
+    @CheckForNull
+    private transient volatile List<TestResult> finished;
+
+    /** Last result polled from the running execution, while earlier ones finished. */
+    private transient volatile SoftReference<TestResult> polled;
+
+    private transient ResultAggregator aggregator;
+
+    public RealtimeTestResultAction() {
+        this(null);
+    }
+
+    /*package*/ RealtimeTestResultAction(@CheckForNull String moduleRoot) {
+        this.moduleRoot = moduleRoot;
+    }
 
     @Override
     public String getDisplayName() {
@@ -69,26 +106,88 @@ public class RealtimeTestResultAction extends AbstractRealtimeTestResultAction {
 
     @Override
     protected TestResult parse() throws IOException, InterruptedException {
+        final TestResult last = getLastResult();
+        final List<TestResult> finished = finished();
+        if (settled) {
+            if (last != null) {
+                return last;
+            }
+            if (!finished.isEmpty()) {
+                return merge(finished);
+            }
+        }
         final JUnitResultArchiver archiver = getArchiver(this.owner);
-        return new JUnitParser(archiver.isKeepLongStdio(), true).parse(getGlob(archiver), this.owner, null, TaskListener.NULL);
-    }
-
-    private String getGlob(final JUnitResultArchiver archiver) {
-
+        FilePath workspace = this.owner.getWorkspace();
+        if (workspace == null) {
+            throw new AbortException("No workspace found for " + this.owner);
+        }
         String glob = archiver.getTestResults();
-        // Ensure the GLOB work recursively
-        if (this.owner instanceof MatrixBuild) {
+        final String reportsDirectory = this.reportsDirectory;
+        if (reportsDirectory != null) {
+            // exactly where the running surefire execution writes
+            workspace = new FilePath(workspace.getChannel(), reportsDirectory);
+            glob = "*.xml";
+        } else if (moduleRoot != null) {
+            // only this module's own reports, not those of the whole reactor
+            workspace = new FilePath(workspace.getChannel(), moduleRoot);
+            glob = DummyArchiver.MODULE_TEST_RESULTS;
+        }
+        if (finished.isEmpty()) {
+            return scanner().scan(workspace, glob, archiver.isKeepLongStdio(), this.owner.getTimeInMillis(), null, last, getParseInterval());
+        }
+        // the last result is merged, so the scanner is given what it returned itself
+        SoftReference<TestResult> ref = polled;
+        TestResult result = scanner().scan(workspace, glob, archiver.isKeepLongStdio(), this.owner.getTimeInMillis(), null,
+                ref != null ? ref.get() : null, getParseInterval());
+        polled = new SoftReference<>(result);
+        List<TestResult> results = new ArrayList<>(finished);
+        results.add(result);
+        return merge(results);
+    }
 
-            final String[] independentChunks = glob.split("[, ]+");
-            for (int i = 0; i < independentChunks.length; i++) {
+    private List<TestResult> finished() {
+        List<TestResult> results = finished;
+        return results != null ? results : Collections.emptyList();
+    }
 
-                independentChunks[i] = "**/" + independentChunks[i];
+    private TestResult merge(List<TestResult> results) throws IOException {
+        if (results.size() == 1) {
+            return results.get(0);
+        }
+        synchronized (this) {
+            if (aggregator == null) {
+                aggregator = new ResultAggregator();
             }
-
-            glob = Util.join(Arrays.asList(independentChunks), ", ");
         }
+        return aggregator.merge(results);
+    }
+
+    @CheckForNull
+    @Override
+    protected VirtualChannel getReportChannel() {
+        FilePath workspace = this.owner.getWorkspace();
+        return workspace != null ? workspace.getChannel() : null;
+    }
+
+    /**
+     * A surefire execution writing to the given directory has started in this module.
+     */
+    /*package*/ void executionStarted(String reportsDirectory) {
+        this.reportsDirectory = reportsDirectory;
+        this.settled = false;
+    }
 
-        return glob;
+    /**
+     * A surefire execution has finished and its reports were parsed by the Maven process.
+     * Its result is merged with those of the executions that finished before it in this module.
+     */
+    /*package*/ void executionFinished(TestResult result) throws IOException, InterruptedException {
+        List<TestResult> results = new ArrayList<>(finished());
+        results.add(result);
+        this.finished = Collections.unmodifiableList(results);
+        this.polled = null;
+        publish(merge(results));
+        this.settled = true;
     }
 
     /*package*/ static JUnitResultArchiver getArchiver(AbstractBuild<?, ?> build) {
@@ -122,7 +221,7 @@ public class RealtimeTestResultAction extends AbstractRealtimeTestResultAction {
 
                 LOGGER.info("Detaching RealtimeTestResultAction from " + build);
                 actions.remove(action);
-                ((RealtimeTestResultAction) action).result = null;
+                ((RealtimeTestResultAction) action).clear();
                 removed = true;
             }
         }
@@ -0,0 +1,150 @@
+/*
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.junitrealtimetestreporter;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.model.Action;
+import hudson.model.Api;
+import hudson.model.Run;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import jenkins.model.TransientActionFactory;
+import org.kohsuke.stapler.HttpResponse;
+import org.kohsuke.stapler.QueryParameter;
+import org.kohsuke.stapler.StaplerRequest2;
+import org.kohsuke.stapler.StaplerResponse2;
+import org.kohsuke.stapler.verb.GET;
+
+/**
+ * Serves what realtime actions offer besides the test result itself, which their own URL is a proxy to.
+ *
+ * {@code <run>/realtimeTestResults/<urlName>/} is the {@link Details} of the action with that URL name.
+ */
+public class RealtimeTestResultsAction implements Action {
+
+    static final String URL_NAME = "realtimeTestResults";
+
+    private final Run<?, ?> run;
+
+    RealtimeTestResultsAction(Run<?, ?> run) {
+        this.run = run;
+    }
+
+    @Override
+    public String getIconFileName() {
+        return null;
+    }
+
+    @Override
+    public String getDisplayName() {
+        return null;
+    }
+
+    @Override
+    public String getUrlName() {
+        return URL_NAME;
+    }
+
+    @CheckForNull
+    public Details getDynamic(String urlName, StaplerRequest2 req, StaplerResponse2 rsp) {
+        AbstractRealtimeTestResultAction action = find(run, urlName);
+        return action != null ? new Details(action) : null;
+    }
+
+    @CheckForNull
+    private static AbstractRealtimeTestResultAction find(Run<?, ?> run, String urlName) {
+        // persisted actions only; Run.getActions(Class) would ask the factory below again
+        for (Action a : run.getActions()) {
+            if (a instanceof AbstractRealtimeTestResultAction && urlName.equals(a.getUrlName())) {
+                return (AbstractRealtimeTestResultAction) a;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Endpoints of one realtime action.
+     */
+    public static final class Details {
+
+        private final AbstractRealtimeTestResultAction action;
+
+        Details(AbstractRealtimeTestResultAction action) {
+            this.action = action;
+        }
+
+        public AbstractRealtimeTestResultAction getAction() {
+            return action;
+        }
+
+        /**
+         * Exported properties of the action itself, such as its parse metrics,
+         * as {@code api} under its own URL is the one of the test result.
+         */
+        public Api getApi() {
+            return new Api(action);
+        }
+
+        /**
+         * @see AbstractRealtimeTestResultAction#doFailures
+         */
+        @GET
+        public HttpResponse doFailures(@QueryParameter String sort, @QueryParameter int start, @QueryParameter int limit, @QueryParameter String filter) {
+            return action.doFailures(sort, start, limit, filter);
+        }
+
+        /**
+         * @see AbstractRealtimeTestResultAction#doStdio
+         */
+        @GET
+        public void doStdio(StaplerRequest2 req, StaplerResponse2 rsp, @QueryParameter String test, @QueryParameter String stream) throws IOException, InterruptedException {
+            action.doStdio(req, rsp, test, stream);
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    @Extension
+    public static final class Factory extends TransientActionFactory<Run> {
+
+        @Override
+        public Class<Run> type() {
+            return Run.class;
+        }
+
+        @NonNull
+        @Override
+        public Collection<? extends Action> createFor(@NonNull Run target) {
+            if (!target.isBuilding()) {
+                return Collections.emptySet();
+            }
+            for (Action a : target.getActions()) {
+                if (a instanceof AbstractRealtimeTestResultAction) {
+                    return Collections.singleton(new RealtimeTestResultsAction(target));
+                }
+            }
+            return Collections.emptySet();
+        }
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.junitrealtimetestreporter;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import hudson.FilePath;
+import hudson.tasks.junit.TestResult;
+import hudson.tasks.test.PipelineTestDetails;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.util.SystemProperties;
+
+/**
+ * Controller side state of the repeated parsing of one realtime action, or of several sharing a workspace.
+ *
+ * Remembers where reports were found and the probes taken by the agent last time, so that refreshes
+ * finding nothing new cost a probe, and other refreshes only scan the directories known to hold reports.
+ */
+final class ReportScanner {
+
+    private static final Logger LOGGER = Logger.getLogger(ReportScanner.class.getName());
+
+    /**
+     * Between full scans only the known report directories are looked at, so reports appearing in new
+     * directories deep below a wildcard are picked up by a full scan of the glob at least this often.
+     */
+    static long FULL_SCAN_INTERVAL = SystemProperties.getLong(ReportScanner.class.getName() + ".fullScanInterval", TimeUnit.MINUTES.toMillis(2));
+
+    /**
+     * Most time a single parse may take on the agent, in milliseconds; 0 for no limit.
+     */
+    static long TIME_BUDGET = SystemProperties.getLong(ReportScanner.class.getName() + ".timeBudget", TimeUnit.MINUTES.toMillis(1));
+
+    /**
+     * Most bytes of reports a single parse may read; 0 for no limit.
+     */
+    static long BYTE_BUDGET = SystemProperties.getLong(ReportScanner.class.getName() + ".byteBudget", 512L * 1024 * 1024);
+
+    private List<String> reportDirs = Collections.emptyList();
+    /** Probe of the literal roots of the glob, as taken during the last call. */
+    @CheckForNull
+    private Long rootsProbe;
+    /** Probe of {@link #probeDirs}, as taken during the last call. */
+    @CheckForNull
+    private Long dirsProbe;
+    private List<String> probeDirs = Collections.emptyList();
+    private List<String> globs = Collections.emptyList();
+    private long lastFullScan;
+    /** Call still running on the agent after its caller stopped waiting, collected by the next scan. */
+    @CheckForNull
+    private Call pending;
+
+    /**
+     * Parses the reports matching {@code glob} in {@code ws}.
+     *
+     * @param previous result of the last parse, returned as is if the agent found nothing changed
+     * @param maxWait most milliseconds to wait for the agent before leaving the parse running for the next call
+     */
+    synchronized TestResult scan(FilePath ws, String glob, boolean keepLongStdio, long buildTime,
+                                 @CheckForNull PipelineTestDetails pipelineTestDetails,
+                                 @CheckForNull TestResult previous, long maxWait) throws IOException, InterruptedException {
+        return scan(ws, Collections.singletonList(new RealtimeParseCallable.Member(glob, keepLongStdio, pipelineTestDetails)),
+                buildTime, Collections.singletonList(previous), maxWait).get(0);
+    }
+
+    /**
+     * Parses the reports of all members in {@code ws} in one call.
+     *
+     * @param previous result of the last parse of each member, returned as is if the agent found nothing changed
+     * @param maxWait most milliseconds to wait for the agent before leaving the parse running for the next call
+     * @throws ParseInProgressException if the agent did not answer within {@code maxWait}
+     */
+    synchronized List<TestResult> scan(FilePath ws, List<RealtimeParseCallable.Member> members, long buildTime,
+                                       List<TestResult> previous, long maxWait) throws IOException, InterruptedException {
+        List<String> memberGlobs = new ArrayList<>(members.size());
+        for (RealtimeParseCallable.Member m : members) {
+            memberGlobs.add(m.getGlob());
+        }
+        if (pending != null && !pending.globs.equals(memberGlobs)) {
+            // parses for other members than the ones asking now
+            pending.future.cancel(true);
+            pending = null;
+        }
+        if (pending == null) {
+            if (RealtimeStdio.LAZY) {
+                List<RealtimeParseCallable.Member> trimmed = new ArrayList<>(members.size());
+                for (RealtimeParseCallable.Member m : members) {
+                    trimmed.add(m.withoutLongStdio());
+                }
+                members = trimmed;
+            }
+            long now = System.currentTimeMillis();
+            boolean fullScan = previous.contains(null) || !memberGlobs.equals(globs) || now - lastFullScan >= FULL_SCAN_INTERVAL;
+            Long lastRootsProbe = fullScan ? null : rootsProbe;
+            // a probe of other directories than the ones we are about to send is meaningless
+            Long lastDirsProbe = fullScan || !probeDirs.equals(reportDirs) ? null : dirsProbe;
+            pending = new Call(ws.actAsync(new RealtimeParseCallable(
+                    members, buildTime, reportDirs, lastRootsProbe, lastDirsProbe, fullScan, TIME_BUDGET, BYTE_BUDGET)),
+                    reportDirs, memberGlobs, now);
+        }
+        Call call = pending;
+        RealtimeParseCallable.Outcome outcome = await(ws, call, maxWait);
+        pending = null;
+        ParseMetrics.Recorder recorder = ParseMetrics.Recorder.current();
+        if (recorder != null) {
+            recorder.location(ws, String.join(",", memberGlobs));
+            recorder.agent(outcome.getScanNanos(), outcome.getParseNanos(), System.nanoTime() - call.started,
+                    outcome.getFiles(), outcome.getBytes());
+        }
+        rootsProbe = outcome.getRootsProbe();
+        dirsProbe = outcome.getDirsProbe();
+        probeDirs = call.dirs;
+        reportDirs = outcome.getReportDirs();
+        globs = memberGlobs;
+        if (outcome.isFullScan()) {
+            lastFullScan = call.now;
+        }
+
+        List<TestResult> results = outcome.getResults();
+        if (results == null) {
+            LOGGER.log(Level.FINE, "No change detected in {0}", ws);
+            return previous;
+        }
+        return results;
+    }
+
+    /**
+     * Waits for the call at most {@code maxWait}, so that requests keep being served the last snapshot while the
+     * agent is slow. The call is cancelled if the agent does not even answer within twice the budget,
+     * for example while stuck in a single huge report.
+     */
+    private RealtimeParseCallable.Outcome await(FilePath ws, Call call, long maxWait) throws IOException, InterruptedException {
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - call.started);
+        // the agent checks the budget itself between reports, give it a chance to say which one was slow
+        long deadline = TIME_BUDGET > 0 ? 2 * TIME_BUDGET - elapsed : Long.MAX_VALUE;
+        try {
+            return call.future.get(Math.max(0, Math.min(maxWait, deadline)), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException x) {
+            if (maxWait < deadline) {
+                throw new ParseInProgressException("Still parsing in " + ws + " after " + (elapsed + maxWait) + "ms");
+            }
+            call.future.cancel(true);
+            pending = null;
+            throw new ParseBudgetExceededException("Parsing in " + ws + " did not finish within " + 2 * TIME_BUDGET + "ms and was cancelled", null);
+        } catch (ExecutionException x) {
+            pending = null;
+            Throwable cause = x.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof InterruptedException) {
+                throw (InterruptedException) cause;
+            }
+            throw new IOException(cause);
+        } catch (InterruptedException x) {
+            call.future.cancel(true);
+            pending = null;
+            throw x;
+        }
+    }
+
+    private static final class Call {
+        private final Future<RealtimeParseCallable.Outcome> future;
+        /** Report directories sent to the agent. */
+        private final List<String> dirs;
+        private final List<String> globs;
+        private final long now;
+        private final long started = System.nanoTime();
+
+        Call(Future<RealtimeParseCallable.Outcome> future, List<String> dirs, List<String> globs, long now) {
+            this.future = future;
+            this.dirs = dirs;
+            this.globs = globs;
+            this.now = now;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.junitrealtimetestreporter;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.tasks.junit.TestResult;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.ref.Reference;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Merges the results of several realtime actions into one, without parsing anything again.
+ *
+ * The merge is redone only when one of the inputs was replaced by a new parse.
+ * Inputs and merged result are only softly held, like the results of realtime snapshots.
+ *
+ * Inputs are left as they are, as they are merged again until replaced and may be served on their own:
+ * {@link TestResult#merge} adopts the suites of its argument and folds suites of the same name into them,
+ * so the merged result is made of copies.
+ */
+final class ResultAggregator {
+
+    private List<Reference<TestResult>> mergedFrom = Collections.emptyList();
+    private Reference<TestResult> merged = new SoftReference<>(null);
+
+    @NonNull
+    synchronized TestResult merge(@NonNull List<TestResult> results) throws IOException {
+        TestResult m = merged.get();
+        if (m != null && sameResults(results)) {
+            return m;
+        }
+        m = new TestResult();
+        for (TestResult r : results) {
+            m.merge(copy(r));
+        }
+        m.tally();
+        merged = new SoftReference<>(m);
+        List<Reference<TestResult>> from = new ArrayList<>(results.size());
+        for (TestResult r : results) {
+            from.add(new SoftReference<>(r));
+        }
+        mergedFrom = from;
+        return m;
+    }
+
+    /**
+     * Deep copy of a result, the way it travels from the agent.
+     */
+    private static TestResult copy(TestResult r) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(r);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (TestResult) in.readObject();
+        } catch (ClassNotFoundException x) {
+            throw new IOException(x);
+        }
+    }
+
+    private boolean sameResults(List<TestResult> results) {
+        if (results.size() != mergedFrom.size()) {
+            return false;
+        }
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i) != mergedFrom.get(i).get()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.junitrealtimetestreporter;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import hudson.FilePath;
+import hudson.model.Run;
+import hudson.tasks.junit.TestResult;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Scans of one workspace shared by all {@link PipelineRealtimeTestResultAction}s of a build reading it,
+ * typically nested {@code realtimeJUnit} blocks or parallel branches with overlapping globs.
+ *
+ * An action refreshing runs one agent call for every member due to refresh and keeps the results of the others,
+ * which they pick up on their next refresh instead of scanning and parsing the same reports again.
+ */
+final class SharedReportScan {
+
+    private static final Map<Run<?, ?>, Map<String, SharedReportScan>> SCANS = new WeakHashMap<>();
+
+    private final ReportScanner scanner = new ReportScanner();
+    private final LongSupplier clock;
+    /** Held while waiting for the agent, so that members asking meanwhile serve their last result rather than block. */
+    private final ReentrantLock scanning = new ReentrantLock();
+    /** Current members by action id, in order of registration. */
+    private final Map<String, Entry> members = new LinkedHashMap<>();
+
+    SharedReportScan() {
+        this(System::currentTimeMillis);
+    }
+
+    /**
+     * @param clock current time in milliseconds, against which results parsed for other members expire
+     */
+    SharedReportScan(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    static SharedReportScan of(Run<?, ?> run, String node, String workspace) {
+        synchronized (SCANS) {
+            return SCANS.computeIfAbsent(run, r -> new HashMap<>())
+                    .computeIfAbsent(node + '\u0000' + workspace, k -> new SharedReportScan());
+        }
+    }
+
+    /**
+     * Forgets about the action, typically as its block ended.
+     */
+    static void release(Run<?, ?> run, String node, String workspace, String id) {
+        SharedReportScan scan;
+        synchronized (SCANS) {
+            Map<String, SharedReportScan> scans = SCANS.get(run);
+            scan = scans != null ? scans.get(node + '\u0000' + workspace) : null;
+        }
+        if (scan != null) {
+            scan.release(id);
+        }
+    }
+
+    /**
+     * Result of the given action, parsed by another member since its last call or scanned now.
+     *
+     * The scan also parses for the other members whose own refresh is due: those that picked up the result last
+     * parsed for them, and whose result is at least half their refresh interval old. A member that stops refreshing,
+     * for example as nobody watches it, is thus parsed for at most once more until it asks again.
+     *
+     * @param parseInterval parse interval of the action: a result parsed for it longer ago than that is not served,
+     *                      and the action waits for the agent at most that long
+     * @param refreshInterval how long the action serves a result before refreshing it, longer than its parse interval
+     *                        while nobody watches it
+     * @throws ParseInProgressException if another member is scanning right now
+     */
+    TestResult scan(String id, RealtimeParseCallable.Member member, FilePath ws, long buildTime,
+                    @CheckForNull TestResult previous, long parseInterval, long refreshInterval) throws IOException, InterruptedException {
+        Entry entry;
+        synchronized (this) {
+            entry = members.computeIfAbsent(id, k -> new Entry());
+            entry.member = member;
+            entry.refreshInterval = refreshInterval;
+            SoftReference<TestResult> parsed = entry.unclaimed;
+            entry.unclaimed = null;
+            TestResult result = parsed != null && clock.getAsLong() - entry.scanned < parseInterval ? parsed.get() : null;
+            if (result != null) {
+                return result;
+            }
+            entry.last = new SoftReference<>(previous);
+        }
+
+        if (!scanning.tryLock()) {
+            // another member is waiting for the agent; the action serves its last result and asks again later
+            throw new ParseInProgressException("Already scanning " + ws + " for another block");
+        }
+        try {
+            long scanned = clock.getAsLong();
+            List<Entry> due = new ArrayList<>();
+            List<RealtimeParseCallable.Member> list = new ArrayList<>();
+            List<TestResult> previousResults = new ArrayList<>();
+            synchronized (this) {
+                // in order of registration, as the scanner starts over whenever the globs it is given change
+                for (Entry other : members.values()) {
+                    if (other == entry || other.isDue(scanned)) {
+                        due.add(other);
+                        list.add(other.member);
+                        previousResults.add(other.last != null ? other.last.get() : null);
+                    }
+                }
+            }
+            if (!due.contains(entry)) {
+                // released meanwhile, yet still asking
+                due.add(entry);
+                list.add(member);
+                previousResults.add(previous);
+            }
+            List<TestResult> results = scanner.scan(ws, list, buildTime, previousResults, parseInterval);
+            synchronized (this) {
+                // members released meanwhile are no longer in the map, so whatever is recorded for them goes away
+                for (int i = 0; i < due.size(); i++) {
+                    Entry other = due.get(i);
+                    SoftReference<TestResult> ref = new SoftReference<>(results.get(i));
+                    other.last = ref;
+                    other.scanned = scanned;
+                    if (other != entry) {
+                        other.unclaimed = ref;
+                    }
+                }
+            }
+            return results.get(due.indexOf(entry));
+        } finally {
+            scanning.unlock();
+        }
+    }
+
+    private synchronized void release(String id) {
+        members.remove(id);
+    }
+
+    private static final class Entry {
+        private RealtimeParseCallable.Member member;
+        private long refreshInterval;
+        /** Softly held like the results of realtime snapshots; a reclaimed one makes the next scan a full one. */
+        @CheckForNull
+        private SoftReference<TestResult> last;
+        /** When the last scan for this member started, so that reports written since then are not missed. */
+        private long scanned;
+        /** Result parsed on behalf of this member that it did not ask for yet. */
+        @CheckForNull
+        private SoftReference<TestResult> unclaimed;
+
+        boolean isDue(long now) {
+            return unclaimed == null && now - scanned >= refreshInterval / 2;
+        }
+    }
+}
@@ -40,11 +40,15 @@ public class TestProgress {
     private String estimatedRemainingTime;
 
     public TestProgress(int expectedTests, float expectedTime, TestResult result) {
+        this(expectedTests, expectedTime, result.getTotalCount(), result.getDuration());
+    }
+
+    public TestProgress(int expectedTests, float expectedTime, int completedTests, float completedTime) {
         this.expectedTests = expectedTests;
         this.expectedTime = expectedTime;
-        
-        completedTests = result.getTotalCount();
-        completedTime = result.getDuration();
+
+        this.completedTests = completedTests;
+        this.completedTime = completedTime;
     }
 
     public String getEstimatedRemainingTime() {
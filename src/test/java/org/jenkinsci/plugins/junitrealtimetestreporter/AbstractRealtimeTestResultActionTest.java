@@ -23,20 +23,30 @@
  */
 package org.jenkinsci.plugins.junitrealtimetestreporter;
 
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.mock;
+import static org.mockito.BDDMockito.mockStatic;
+import static org.mockito.BDDMockito.never;
 import static org.mockito.BDDMockito.times;
 import static org.mockito.BDDMockito.verify;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
+import org.mockito.MockedStatic;
 import org.mockito.Spy;
 
 import hudson.Main;
 import hudson.model.Run;
 import hudson.tasks.junit.TestResult;
+import java.io.IOException;
+import org.kohsuke.stapler.Stapler;
+import org.kohsuke.stapler.StaplerRequest2;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 @ExtendWith(MockitoExtension.class)
@@ -84,4 +94,49 @@ class AbstractRealtimeTestResultActionTest {
         action.getResult();
         assertNotNull(action.getTestProgress());
     }
+
+    @Test
+    void servesResultSavedByOlderVersionsUntilNextParse() throws Exception {
+        TestResult saved = new TestResult();
+        action.result = saved;
+        action.readResolve();
+        assertNull(action.result);
+        assertSame(saved, action.getLastResult());
+
+        action.getResult();
+        verify(action).parse();
+        verify(action, never()).findPreviousTestResult();
+    }
+
+    @Test
+    void servesStaleResultAndBacksOffWhenParsingFails() throws Exception {
+        TestResult first = new TestResult();
+        given(action.parse()).willReturn(first).willThrow(new IOException("channel is closing down"));
+
+        assertSame(first, action.getResult());
+        assertFalse(action.isStale());
+        assertSame(first, action.getResult());
+        assertTrue(action.isStale());
+
+        // no new attempt before the retry interval elapsed
+        assertSame(first, action.getResult());
+        verify(action, times(2)).parse();
+    }
+
+    @Test
+    void onlyPageViewsKeepResultsWatched() throws Exception {
+        given(run.isBuilding()).willReturn(true);
+        StaplerRequest2 req = mock(StaplerRequest2.class);
+        try (MockedStatic<Stapler> stapler = mockStatic(Stapler.class)) {
+            stapler.when(Stapler::getCurrentRequest2).thenReturn(req);
+
+            given(req.getRestOfPath()).willReturn("/api/json");
+            action.getTarget();
+            assertFalse(action.isWatched());
+
+            given(req.getRestOfPath()).willReturn("/a/A/");
+            action.getTarget();
+            assertTrue(action.isWatched());
+        }
+    }
 }
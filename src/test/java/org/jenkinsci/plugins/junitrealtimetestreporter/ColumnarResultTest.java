@@ -0,0 +1,92 @@
+package org.jenkinsci.plugins.junitrealtimetestreporter;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import java.lang.ref.SoftReference;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import hudson.tasks.junit.CaseResult;
+import hudson.tasks.junit.SuiteResult;
+import hudson.tasks.junit.TestResult;
+
+class ColumnarResultTest {
+
+    private static CaseResult test(String className, String name, float duration, boolean passed, boolean skipped) {
+        CaseResult c = mock(CaseResult.class);
+        given(c.getPackageName()).willReturn(className.substring(0, className.lastIndexOf('.')));
+        given(c.getClassName()).willReturn(className);
+        given(c.getName()).willReturn(name);
+        given(c.getDuration()).willReturn(duration);
+        given(c.isPassed()).willReturn(passed);
+        given(c.isSkipped()).willReturn(skipped);
+        return c;
+    }
+
+    private final CaseResult passed = test("a.A", "one", 1f, true, false);
+    private final CaseResult failed = test("a.A", "two", 2f, false, false);
+    private final CaseResult skipped = test("b.B", "one", 0f, false, true);
+    private final CaseResult failedToo = test("b.B", "two", 3f, false, false);
+    private final TestResult result = mock(TestResult.class);
+
+    ColumnarResultTest() {
+        SuiteResult a = mock(SuiteResult.class);
+        given(a.getCases()).willReturn(Arrays.asList(passed, failed));
+        SuiteResult b = mock(SuiteResult.class);
+        given(b.getCases()).willReturn(Arrays.asList(skipped, failedToo));
+        given(result.getSuites()).willReturn(Arrays.asList(a, b));
+    }
+
+    @Test
+    void columns() throws Exception {
+        ColumnarResult columns = ColumnarResult.of(result);
+        assertEquals(4, columns.size());
+        assertEquals("a.A.two", columns.fullName(1));
+        assertEquals("b", columns.packageName(3));
+        assertEquals(3f, columns.duration(3));
+        assertEquals(ColumnarResult.SKIPPED, columns.status(2));
+        assertArrayEquals(new int[] {1, 3}, columns.failedRows());
+    }
+
+    @Test
+    void resolvesRowsInOnePass() throws Exception {
+        List<CaseResult> cases = ColumnarResult.resolve(result, new int[] {3, 1});
+        assertSame(failedToo, cases.get(0));
+        assertSame(failed, cases.get(1));
+    }
+
+    @Test
+    void failureIndexOverColumns() throws Exception {
+        FailureIndex index = new FailureIndex(ColumnarResult.of(result), new SoftReference<>(result));
+        assertEquals(Arrays.asList(failedToo, failed), index.get(FailureIndex.Order.DURATION));
+        assertEquals(Arrays.asList(failedToo), index.page(FailureIndex.Order.NAME, "b.", 0, 10).getItems());
+    }
+
+    @Test
+    void failureIndexOutlivesResult() throws Exception {
+        FailureIndex index = new FailureIndex(ColumnarResult.of(result), new SoftReference<>(null));
+        FailureIndex.Page page = index.page(FailureIndex.Order.AGE, "a.", 0, 10);
+        assertEquals(1, page.size());
+        assertEquals("a.A.two", page.getName(0));
+        assertEquals(2f, page.getDuration(0));
+        assertNull(page.getItems().get(0));
+    }
+
+    @Test
+    void identifiersSharedAcrossResults() throws Exception {
+        TestResult other = mock(TestResult.class);
+        SuiteResult suite = mock(SuiteResult.class);
+        given(suite.getCases()).willReturn(Arrays.asList(test(new String("a.A"), new String("two"), 1f, true, false)));
+        given(other.getSuites()).willReturn(Arrays.asList(suite));
+
+        ColumnarResult first = ColumnarResult.of(result);
+        ColumnarResult second = ColumnarResult.of(other);
+        assertSame(first.className(1), second.className(0));
+        assertSame(first.name(1), second.name(0));
+    }
+}
@@ -0,0 +1,77 @@
+package org.jenkinsci.plugins.junitrealtimetestreporter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import hudson.tasks.junit.CaseResult;
+
+class FailureIndexTest {
+
+    private static CaseResult failure(String name, float duration, int age) {
+        CaseResult c = mock(CaseResult.class);
+        given(c.getFullName()).willReturn(name);
+        given(c.getDuration()).willReturn(duration);
+        given(c.getAge()).willReturn(age);
+        return c;
+    }
+
+    private static List<String> names(List<CaseResult> cases) {
+        List<String> names = new ArrayList<>();
+        for (CaseResult c : cases) {
+            names.add(c.getFullName());
+        }
+        return names;
+    }
+
+    private final FailureIndex index = new FailureIndex(Arrays.asList(
+            failure("c.C.c", 1f, 3),
+            failure("a.A.a", 5f, 1),
+            failure("b.B.b", 3f, 2)));
+
+    @Test
+    void sortedByName() throws Exception {
+        assertEquals(Arrays.asList("a.A.a", "b.B.b", "c.C.c"), names(index.get(FailureIndex.Order.NAME)));
+    }
+
+    @Test
+    void sortedByAgeOldestFirst() throws Exception {
+        assertEquals(Arrays.asList("c.C.c", "b.B.b", "a.A.a"), names(index.get(FailureIndex.Order.AGE)));
+    }
+
+    @Test
+    void sortedByDurationSlowestFirst() throws Exception {
+        assertEquals(Arrays.asList("a.A.a", "b.B.b", "c.C.c"), names(index.get(FailureIndex.Order.DURATION)));
+    }
+
+    @Test
+    void page() throws Exception {
+        FailureIndex.Page page = index.page(FailureIndex.Order.NAME, null, 1, 1);
+        assertEquals(Arrays.asList("b.B.b"), names(page.getItems()));
+        assertEquals(3, page.getTotal());
+    }
+
+    @Test
+    void pageBeyondEnd() throws Exception {
+        FailureIndex.Page page = index.page(FailureIndex.Order.NAME, null, 5, 10);
+        assertEquals(0, page.getItems().size());
+        assertEquals(3, page.getTotal());
+    }
+
+    @Test
+    void filteredPage() throws Exception {
+        FailureIndex.Page page = index.page(FailureIndex.Order.NAME, "B.", 0, 0);
+        assertEquals(Arrays.asList("b.B.b"), names(page.getItems()));
+        assertEquals(1, page.getTotal());
+    }
+
+    @Test
+    void unknownOrderFallsBackToName() throws Exception {
+        assertEquals(FailureIndex.Order.NAME, FailureIndex.Order.parse("bogus"));
+        assertEquals(FailureIndex.Order.AGE, FailureIndex.Order.parse("age"));
+    }
+}
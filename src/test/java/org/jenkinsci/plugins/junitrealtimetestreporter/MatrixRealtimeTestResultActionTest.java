@@ -0,0 +1,100 @@
+package org.jenkinsci.plugins.junitrealtimetestreporter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import hudson.FilePath;
+import hudson.matrix.MatrixBuild;
+import hudson.matrix.MatrixProject;
+import hudson.matrix.MatrixRun;
+import hudson.tasks.junit.JUnitResultArchiver;
+import hudson.tasks.junit.TestResult;
+import hudson.util.DescribableList;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class MatrixRealtimeTestResultActionTest {
+
+    @TempDir
+    File dir;
+
+    private final List<MatrixRun> runs = new ArrayList<>();
+
+    private MatrixRealtimeTestResultAction action;
+
+    @BeforeEach
+    void init(JenkinsRule r) {
+        MatrixBuild build = mock(MatrixBuild.class);
+        MatrixProject project = mock(MatrixProject.class);
+        DescribableList<?, ?> publishers = mock(DescribableList.class);
+        doReturn(build).when(build).getRootBuild();
+        doReturn(project).when(build).getParent();
+        doReturn(publishers).when(project).getPublishersList();
+        doReturn(new JUnitResultArchiver("*.xml")).when(publishers).get(JUnitResultArchiver.class);
+        given(build.getExactRuns()).willReturn(runs);
+        action = new MatrixRealtimeTestResultAction();
+        action.run = build;
+        action.owner = build;
+    }
+
+    @Test
+    void mergesConfigurations(JenkinsRule r) throws Exception {
+        report(configuration("a"), "a.A", 1);
+        report(configuration("b"), "b.B", 1);
+
+        TestResult result = action.getResult();
+        assertEquals(2, result.getTotalCount());
+        assertNotNull(result.getSuite("a.A"));
+        assertNotNull(result.getSuite("b.B"));
+        assertNull(action.getProblem());
+    }
+
+    @Test
+    void failingConfigurationBacksOffAndReportsTheProblem(JenkinsRule r) throws Exception {
+        report(configuration("a"), "a.A", 1);
+        report(configuration("b"), "b.B", 100);
+        long budget = ReportScanner.BYTE_BUDGET;
+        ReportScanner.BYTE_BUDGET = 2000;
+        try {
+            // the other configuration is still shown
+            assertEquals(1, action.getResult().getTotalCount());
+            assertNotNull(action.getProblem());
+            action.getResult();
+            assertEquals(1, action.getCacheMisses());
+        } finally {
+            ReportScanner.BYTE_BUDGET = budget;
+        }
+    }
+
+    private File configuration(String name) {
+        File ws = new File(dir, name);
+        ws.mkdirs();
+        MatrixRun run = mock(MatrixRun.class);
+        given(run.getExternalizableId()).willReturn("p/" + name + "#1");
+        given(run.isBuilding()).willReturn(true);
+        given(run.getWorkspace()).willReturn(new FilePath(ws));
+        runs.add(run);
+        return ws;
+    }
+
+    private static void report(File ws, String className, int tests) throws Exception {
+        StringBuilder xml = new StringBuilder("<testsuite name='" + className + "' tests='" + tests + "'>");
+        for (int i = 0; i < tests; i++) {
+            xml.append("<testcase classname='").append(className).append("' name='test").append(i).append("'/>");
+        }
+        xml.append("</testsuite>");
+        Files.write(new File(ws, "TEST-" + className + ".xml").toPath(), xml.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,119 @@
+package org.jenkinsci.plugins.junitrealtimetestreporter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import hudson.AbortException;
+import hudson.maven.MavenBuild;
+import hudson.maven.MavenModule;
+import hudson.maven.MavenModuleSetBuild;
+import hudson.tasks.junit.TestResult;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class MavenModuleSetRealtimeTestResultActionTest {
+
+    @TempDir
+    File dir;
+
+    @Mock
+    private MavenModuleSetBuild build;
+
+    private final Map<MavenModule, MavenBuild> modules = new LinkedHashMap<>();
+
+    private MavenModuleSetRealtimeTestResultAction action;
+
+    @BeforeEach
+    void init() {
+        given(build.getModuleLastBuilds()).willReturn(modules);
+        action = new MavenModuleSetRealtimeTestResultAction();
+        action.run = build;
+        action.owner = build;
+    }
+
+    @Test
+    void mergesWhatModulesPublishedWithoutRefreshingThem() throws Exception {
+        TestResult a = parse("a.xml", "a.A");
+        TestResult b = parse("b.xml", "b.B");
+        RealtimeTestResultAction moduleA = module(a);
+        RealtimeTestResultAction moduleB = module(b);
+
+        for (int i = 0; i < 2; i++) {
+            TestResult merged = action.parse();
+            assertEquals(2, merged.getTotalCount());
+        }
+
+        verify(moduleA, never()).parse();
+        verify(moduleA, never()).getResult();
+        verify(moduleB, never()).parse();
+        // module results are served by their own pages as they were
+        assertEquals(1, a.getTotalCount());
+        assertSame(a, a.getSuite("a.A").getParent());
+        assertSame(a, moduleA.getLastResult());
+        // merging is not looking at the modules
+        assertFalse(moduleA.isWatched());
+    }
+
+    @Test
+    void countsModulesWithoutMergingThem() throws Exception {
+        module(parse("a.xml", "a.A"));
+        module(parse("b.xml", "b.B"));
+
+        assertEquals(2, action.getTotalCount());
+        assertEquals(0, action.getFailCount());
+        assertEquals(0, action.getFailureIndex().size());
+        assertNull(action.getLastResult());
+    }
+
+    @Test
+    void viewingMarksModulesAsViewed() throws Exception {
+        RealtimeTestResultAction moduleA = module(parse("a.xml", "a.A"));
+        action.viewed();
+        assertTrue(action.isWatched());
+        assertTrue(moduleA.isWatched());
+    }
+
+    @Test
+    void nothingToShowWhileNoModuleHasResults() throws Exception {
+        modules.put(mock(MavenModule.class), mock(MavenBuild.class));
+        assertThrows(AbortException.class, () -> action.parse());
+    }
+
+    private RealtimeTestResultAction module(TestResult result) throws Exception {
+        MavenBuild moduleBuild = mock(MavenBuild.class);
+        RealtimeTestResultAction module = spy(new RealtimeTestResultAction());
+        module.run = moduleBuild;
+        module.owner = moduleBuild;
+        module.executionFinished(result);
+        given(moduleBuild.getAction(RealtimeTestResultAction.class)).willReturn(module);
+        modules.put(mock(MavenModule.class), moduleBuild);
+        return module;
+    }
+
+    private TestResult parse(String name, String className) throws Exception {
+        Files.write(new File(dir, name).toPath(), ("<testsuite name='" + className + "' tests='1'><testcase classname='" + className + "' name='x'/></testsuite>")
+                .getBytes(StandardCharsets.UTF_8));
+        TestResult result = new TestResult();
+        result.parse(0, dir, null, new String[] {name});
+        result.tally();
+        return result;
+    }
+}
@@ -0,0 +1,44 @@
+package org.jenkinsci.plugins.junitrealtimetestreporter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class ParseHistoryTest {
+
+    private static ParseMetrics metrics(int files) {
+        return new ParseMetrics(0, ParseMetrics.Outcome.PARSED, 0, 0, 0, 0, 0, files, 0, 0);
+    }
+
+    @Test
+    void keepsMostRecentFirst() throws Exception {
+        ParseHistory history = new ParseHistory();
+        for (int i = 0; i < ParseHistory.SIZE + 5; i++) {
+            history.add(metrics(i));
+        }
+        history.hit();
+        List<ParseMetrics> list = history.get();
+        assertEquals(ParseHistory.SIZE, list.size());
+        assertEquals(ParseHistory.SIZE + 4, list.get(0).getFiles());
+        assertEquals(5, list.get(ParseHistory.SIZE - 1).getFiles());
+        assertEquals(1, history.getHits());
+        assertEquals(ParseHistory.SIZE + 5, history.getMisses());
+    }
+
+    @Test
+    void recorderSplitsAgentTimeFromTransfer() throws Exception {
+        ParseMetrics.Recorder recorder = ParseMetrics.Recorder.start();
+        recorder.agent(10, 20, 100, 2, 300);
+        recorder.merge(5);
+        ParseMetrics metrics = recorder.stop(ParseMetrics.Outcome.PARSED, 7);
+        assertEquals(10, metrics.getScanNanos());
+        assertEquals(20, metrics.getParseNanos());
+        assertEquals(70, metrics.getTransferNanos());
+        assertEquals(5, metrics.getMergeNanos());
+        assertEquals(2, metrics.getFiles());
+        assertEquals(300, metrics.getBytes());
+        assertEquals(7, metrics.getCasesAdded());
+        assertNull(ParseMetrics.Recorder.current());
+    }
+}
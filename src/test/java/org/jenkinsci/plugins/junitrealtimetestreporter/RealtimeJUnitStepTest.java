@@ -34,6 +34,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.logging.Level;
+import org.htmlunit.html.DomElement;
 import org.jenkinsci.plugins.database.GlobalDatabaseConfiguration;
 import org.jenkinsci.plugins.database.h2.LocalH2Database;
 import org.jenkinsci.plugins.junitrealtimetestreporter.storage.H2JunitTestResultStorage;
@@ -57,6 +58,7 @@ import org.junit.jupiter.params.ParameterizedClass;
 import static org.junit.jupiter.api.Assertions.*;
 
 import org.junit.jupiter.params.provider.ValueSource;
+import org.jvnet.hudson.test.JenkinsRule;
 import org.jvnet.hudson.test.LogRecorder;
 
 import com.google.common.base.Predicate;
@@ -149,6 +151,11 @@ class RealtimeJUnitStepTest {
                 assertEquals(4, rta.getTotalCount());
                 assertEquals(1, rta.getFailCount());
                 r.assertBuildStatus(null, b2); // only final JUnitResultArchiver sets it to UNSTABLE
+                JenkinsRule.WebClient wc = r.createWebClient();
+                DomElement pane = wc.goTo(b2.getUrl() + rta.getUrlName() + "/").getElementById("realtimeParseMetrics");
+                assertNotNull(pane);
+                assertTrue(pane.asNormalizedText().contains("Results shown were parsed"));
+                assertFalse(wc.getJSON(rta.getDetailsUrl() + "api/json").getJSONObject().getJSONArray("parseMetrics").isEmpty());
                 SemaphoreStep.success("post/2", null);
                 SemaphoreStep.waitForStart("final/2", b2);
                 assertEquals(Collections.emptyList(), b2.getActions(AbstractRealtimeTestResultAction.class));
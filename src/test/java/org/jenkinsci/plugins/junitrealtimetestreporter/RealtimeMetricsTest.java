@@ -0,0 +1,44 @@
+package org.jenkinsci.plugins.junitrealtimetestreporter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+
+class RealtimeMetricsTest {
+
+    @Test
+    void quantilesRoundUpToPowersOfTwo() throws Exception {
+        RealtimeMetrics.Histogram histogram = new RealtimeMetrics.Histogram();
+        assertEquals(0, histogram.quantile(0.5));
+        for (int i = 0; i < 98; i++) {
+            histogram.add(10);
+        }
+        histogram.add(100);
+        histogram.add(5000);
+        assertEquals(15, histogram.quantile(0.5));
+        assertEquals(127, histogram.quantile(0.99));
+        assertEquals(8191, histogram.quantile(1));
+    }
+
+    @Test
+    void countsLastMinuteOnly() throws Exception {
+        RealtimeMetrics.PerMinute perMinute = new RealtimeMetrics.PerMinute();
+        perMinute.add(1_000);
+        perMinute.add(30_000);
+        perMinute.add(30_500);
+        assertEquals(3, perMinute.get(31_000));
+        assertEquals(2, perMinute.get(65_000));
+        assertEquals(0, perMinute.get(200_000));
+    }
+
+    @Test
+    void countsOutcomes() throws Exception {
+        RealtimeMetrics metrics = new RealtimeMetrics();
+        metrics.hit();
+        metrics.record(new ParseMetrics(System.currentTimeMillis(), ParseMetrics.Outcome.FAILED, 3_000_000, 0, 0, 0, 0, 0, 0, 0));
+        assertEquals(1, metrics.getCacheHits());
+        assertEquals(1, metrics.getCount(ParseMetrics.Outcome.FAILED));
+        assertEquals(0, metrics.getCount(ParseMetrics.Outcome.PARSED));
+        assertEquals(1, metrics.getParsesPerMinute());
+        assertEquals(3, metrics.getLatency(0.5));
+    }
+}
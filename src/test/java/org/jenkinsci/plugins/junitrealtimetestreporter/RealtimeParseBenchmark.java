@@ -0,0 +1,102 @@
+package org.jenkinsci.plugins.junitrealtimetestreporter;
+
+import hudson.Util;
+import hudson.tasks.junit.TestResult;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Costs of the steps of a realtime refresh, run through {@link BenchmarkRunner}.
+ */
+@State(Scope.Benchmark)
+public class RealtimeParseBenchmark {
+
+    private static final String GLOB = "**/target/surefire-reports/*.xml";
+
+    @Param({"SMALL", "LARGE", "LONG_STDIO", "TRUNCATED"})
+    public ReportCorpus corpus;
+
+    private File ws;
+    private RealtimeParseCallable.Member member;
+    private RealtimeParseCallable.Outcome first;
+    private TestResult result;
+    private TestResult other;
+
+    @Setup
+    public void setUp() throws Exception {
+        ws = Files.createTempDirectory("realtime-benchmark").toFile();
+        corpus.write(ws);
+        member = new RealtimeParseCallable.Member(GLOB, true, null);
+        first = callable(member, Collections.emptyList(), null, null, true).invoke(ws, null);
+        result = first.getResults().get(0);
+        other = callable(member, Collections.emptyList(), null, null, true).invoke(ws, null).getResults().get(0);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        Util.deleteRecursive(ws);
+    }
+
+    private static RealtimeParseCallable callable(RealtimeParseCallable.Member member, List<String> reportDirs, Long rootsProbe, Long dirsProbe, boolean fullScan) {
+        return new RealtimeParseCallable(Collections.singletonList(member), 0, reportDirs, rootsProbe, dirsProbe, fullScan, 0, 0);
+    }
+
+    /**
+     * Scans the whole glob and parses every report, as the first refresh of a build does.
+     */
+    @Benchmark
+    public void fullParse(Blackhole bh) throws Exception {
+        bh.consume(callable(member, Collections.emptyList(), null, null, true).invoke(ws, null));
+    }
+
+    /**
+     * Parses the reports of the directories known from the last refresh, as later refreshes do when something changed.
+     */
+    @Benchmark
+    public void incrementalReparse(Blackhole bh) throws Exception {
+        bh.consume(callable(member, first.getReportDirs(), first.getRootsProbe(), null, false).invoke(ws, null));
+    }
+
+    /**
+     * Only probes the workspace, as refreshes do when nothing changed.
+     */
+    @Benchmark
+    public void unchangedProbe(Blackhole bh) throws Exception {
+        bh.consume(callable(member, first.getReportDirs(), first.getRootsProbe(), first.getDirsProbe(), false).invoke(ws, null));
+    }
+
+    /**
+     * Parses every report keeping only trimmed output, as in {@link RealtimeStdio#LAZY} mode.
+     */
+    @Benchmark
+    public void summaryOnlyParse(Blackhole bh) throws Exception {
+        bh.consume(callable(member.withoutLongStdio(), Collections.emptyList(), null, null, true).invoke(ws, null));
+    }
+
+    /**
+     * Builds the snapshot of a parsed result: columns, progress and failure index.
+     */
+    @Benchmark
+    public void snapshot(Blackhole bh) {
+        bh.consume(RealtimeSnapshot.of(result, -1, -1, 0));
+    }
+
+    /**
+     * Merges the results of two branches or configurations.
+     */
+    @Benchmark
+    public TestResult merge() throws IOException {
+        return new ResultAggregator().merge(Arrays.asList(result, other));
+    }
+}
@@ -0,0 +1,140 @@
+package org.jenkinsci.plugins.junitrealtimetestreporter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import hudson.AbortException;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RealtimeParseCallableTest {
+
+    private static final String REPORT = "<testsuite name='a.A' tests='1'><testcase classname='a.A' name='x'/></testsuite>";
+
+    @TempDir
+    File ws;
+
+    @Test
+    void roots() throws Exception {
+        assertEquals(Arrays.asList("."), RealtimeParseCallable.roots("*.xml"));
+        assertEquals(Arrays.asList("."), RealtimeParseCallable.roots("**/target/surefire-reports/*.xml"));
+        assertEquals(Arrays.asList("a/reports", "b"), RealtimeParseCallable.roots("b/*/TEST-*.xml, a/reports/*.xml"));
+    }
+
+    @Test
+    void scope() throws Exception {
+        assertEquals("a/target/surefire-reports/*.xml,b/target/surefire-reports/*.xml",
+                RealtimeParseCallable.scope("**/target/surefire-reports/*.xml", Arrays.asList("a/target/surefire-reports", "b/target/surefire-reports")));
+        assertEquals("*.xml,sub/*.xml", RealtimeParseCallable.scope("**/*.xml", Arrays.asList(".", "sub")));
+        assertEquals("*.xml", RealtimeParseCallable.scope("*.xml", Arrays.asList(".")));
+        assertEquals("reports/**", RealtimeParseCallable.scope("reports/**", Arrays.asList("reports/x")));
+        assertEquals("other/*.xml", RealtimeParseCallable.scope("other/*.xml", Arrays.asList("reports")));
+    }
+
+    @Test
+    void parentDirs() throws Exception {
+        assertEquals(Arrays.asList(".", "a/reports"), RealtimeParseCallable.parentDirs(new String[] {"a/reports/1.xml", "x.xml", "a/reports/2.xml"}));
+    }
+
+    @Test
+    void union() throws Exception {
+        assertEquals("**/*.xml,a/*.xml", RealtimeParseCallable.union(Arrays.asList(
+                new RealtimeParseCallable.Member("**/*.xml", false, null),
+                new RealtimeParseCallable.Member("a/*.xml, **/*.xml", false, null))));
+    }
+
+    @Test
+    void memberMatchesItsOwnGlobOnly() throws Exception {
+        RealtimeParseCallable.Member member = new RealtimeParseCallable.Member("a/*.xml, b/**/TEST-*.xml", false, null);
+        assertTrue(member.matches("a/x.xml"));
+        assertTrue(member.matches("b\\c\\TEST-x.xml"));
+        assertFalse(member.matches("c/x.xml"));
+    }
+
+    @Test
+    void probeDetectsNewAndGrowingReports() throws Exception {
+        File reports = new File(ws, "reports");
+        assertTrue(reports.mkdirs());
+        File a = new File(reports, "a.xml");
+        Files.write(a.toPath(), "<testsuite/>".getBytes(StandardCharsets.UTF_8));
+
+        List<String> roots = RealtimeParseCallable.roots("reports/*.xml");
+        List<String> dirs = Collections.singletonList("reports");
+        long probe = RealtimeParseCallable.probe(ws, roots, dirs);
+        assertEquals(probe, RealtimeParseCallable.probe(ws, roots, dirs));
+
+        Files.write(new File(reports, "b.xml").toPath(), "<testsuite/>".getBytes(StandardCharsets.UTF_8));
+        long withNewReport = RealtimeParseCallable.probe(ws, roots, dirs);
+        assertNotEquals(probe, withNewReport);
+
+        Files.write(a.toPath(), "<testsuite name='a'/>".getBytes(StandardCharsets.UTF_8));
+        assertNotEquals(withNewReport, RealtimeParseCallable.probe(ws, roots, dirs));
+    }
+
+    @Test
+    void scansWhileNoReportDirectoryIsKnown() throws Exception {
+        File reports = new File(ws, "sub/reports");
+        assertTrue(reports.mkdirs());
+        Files.write(new File(reports, "TEST-a.xml").toPath(), REPORT.getBytes(StandardCharsets.UTF_8));
+        List<String> none = Collections.emptyList();
+        // nothing changed in the root of the glob since the last call, which found no reports
+        RealtimeParseCallable callable = new RealtimeParseCallable(
+                Collections.singletonList(new RealtimeParseCallable.Member("**/*.xml", false, null)),
+                0, none, RealtimeParseCallable.probe(ws, RealtimeParseCallable.roots("**/*.xml"), none), RealtimeParseCallable.probe(ws, none, none), false, 0, 0);
+
+        RealtimeParseCallable.Outcome outcome = callable.invoke(ws, null);
+        assertNotNull(outcome.getResults());
+        assertEquals(1, outcome.getResults().get(0).getTotalCount());
+    }
+
+    @Test
+    void skipsReportsOlderThanTheBuild() throws Exception {
+        long buildTime = System.currentTimeMillis() - 60_000;
+        File old = new File(ws, "TEST-old.xml");
+        Files.write(old.toPath(), REPORT.getBytes(StandardCharsets.UTF_8));
+        assertTrue(old.setLastModified(buildTime - 3_600_000));
+        Files.write(new File(ws, "TEST-b.xml").toPath(), REPORT.replace("a.A", "b.B").getBytes(StandardCharsets.UTF_8));
+        Files.write(new File(ws, "TEST-c.xml").toPath(), REPORT.replace("a.A", "c.C").getBytes(StandardCharsets.UTF_8));
+        RealtimeParseCallable callable = new RealtimeParseCallable(
+                Collections.singletonList(new RealtimeParseCallable.Member("*.xml", false, null)),
+                buildTime, Collections.emptyList(), null, null, true, 0, 0);
+
+        RealtimeParseCallable.Outcome outcome = callable.invoke(ws, null);
+        assertEquals(2, outcome.getFiles());
+        assertEquals(2, outcome.getResults().get(0).getTotalCount());
+    }
+
+    @Test
+    void abortsWhenNoReportIsNew() throws Exception {
+        long buildTime = System.currentTimeMillis() - 60_000;
+        File old = new File(ws, "TEST-old.xml");
+        Files.write(old.toPath(), REPORT.getBytes(StandardCharsets.UTF_8));
+        assertTrue(old.setLastModified(buildTime - 3_600_000));
+        RealtimeParseCallable callable = new RealtimeParseCallable(
+                Collections.singletonList(new RealtimeParseCallable.Member("*.xml", false, null)),
+                buildTime, Collections.emptyList(), null, null, true, 0, 0);
+
+        assertThrows(AbortException.class, () -> callable.invoke(ws, null));
+    }
+
+    @Test
+    void byteBudgetNamesLargestReport() throws Exception {
+        Files.write(new File(ws, "small.xml").toPath(), "<testsuite/>".getBytes(StandardCharsets.UTF_8));
+        Files.write(new File(ws, "big.xml").toPath(), "<testsuite name='a very long name'/>".getBytes(StandardCharsets.UTF_8));
+        RealtimeParseCallable callable = new RealtimeParseCallable(
+                Collections.singletonList(new RealtimeParseCallable.Member("*.xml", false, null)),
+                0, Collections.emptyList(), null, null, true, 0, 20);
+
+        ParseBudgetExceededException x = assertThrows(ParseBudgetExceededException.class, () -> callable.invoke(ws, null));
+        assertEquals("big.xml", x.getFile());
+    }
+}
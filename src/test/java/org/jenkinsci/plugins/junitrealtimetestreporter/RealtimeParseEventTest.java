@@ -0,0 +1,38 @@
+package org.jenkinsci.plugins.junitrealtimetestreporter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.io.File;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RealtimeParseEventTest {
+
+    @TempDir
+    File dir;
+
+    @Test
+    void recordsRefresh() throws Exception {
+        File dump = new File(dir, "recording.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(RealtimeParseEvent.class);
+            recording.start();
+            ParseMetrics.Recorder recorder = ParseMetrics.Recorder.start();
+            RealtimeParseEvent event = new RealtimeParseEvent();
+            event.begin();
+            recorder.agent(0, 0, 0, 3, 1024);
+            event.record(null, recorder, recorder.stop(ParseMetrics.Outcome.PARSED, 3));
+            recording.stop();
+            recording.dump(dump.toPath());
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump.toPath());
+        assertEquals(1, events.size());
+        RecordedEvent event = events.get(0);
+        assertEquals(3, event.getInt("files"));
+        assertEquals(1024, event.getLong("bytes"));
+        assertEquals("PARSED", event.getString("outcome"));
+    }
+}
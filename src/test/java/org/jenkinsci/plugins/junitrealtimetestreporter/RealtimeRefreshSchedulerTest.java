@@ -0,0 +1,57 @@
+package org.jenkinsci.plugins.junitrealtimetestreporter;
+
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import hudson.model.Run;
+import hudson.tasks.junit.TestResult;
+
+@ExtendWith(MockitoExtension.class)
+class RealtimeRefreshSchedulerTest {
+
+    @Spy
+    private AbstractRealtimeTestResultAction action;
+
+    @Mock
+    private Run<?, ?> run;
+
+    private final RealtimeRefreshScheduler scheduler = new RealtimeRefreshScheduler();
+
+    @BeforeEach
+    void init() throws Exception {
+        action.run = run;
+    }
+
+    @Test
+    void refreshesWatchedResultsUntilTheBuildCompletes() throws Exception {
+        given(action.parse()).willReturn(new TestResult());
+        given(run.isBuilding()).willReturn(true);
+        action.viewed();
+
+        scheduler.doRun();
+        verify(action, timeout(5000)).refresh(false);
+
+        given(run.isBuilding()).willReturn(false);
+        scheduler.doRun();
+        scheduler.doRun();
+        verify(action, after(500).times(1)).refresh(false);
+    }
+
+    @Test
+    void stopsRefreshingReleasedResults() throws Exception {
+        action.viewed();
+        action.clear();
+
+        scheduler.doRun();
+        verify(action, after(500).never()).refresh(anyBoolean());
+    }
+}
@@ -0,0 +1,184 @@
+package org.jenkinsci.plugins.junitrealtimetestreporter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import hudson.Main;
+import hudson.model.Result;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+import org.jenkinsci.plugins.workflow.cps.CpsFlowDefinition;
+import org.jenkinsci.plugins.workflow.job.WorkflowJob;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+import org.jenkinsci.plugins.workflow.test.steps.SemaphoreStep;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+/**
+ * Many realtime builds writing reports gradually while many viewers poll their pages, checked against budgets.
+ * Takes long and a lot of memory, so only runs when asked for: {@code mvn test -Dtest=RealtimeScaleTest -DscaleTest=true},
+ * sized with {@code -DscaleTest.builds}, {@code -DscaleTest.viewers} and the budgets below.
+ */
+@WithJenkins
+@EnabledIfSystemProperty(named = "scaleTest", matches = "true")
+class RealtimeScaleTest {
+
+    private static final Logger LOGGER = Logger.getLogger(RealtimeScaleTest.class.getName());
+
+    private static final int BUILDS = Integer.getInteger("scaleTest.builds", 200);
+    private static final int VIEWERS = Integer.getInteger("scaleTest.viewers", 1000);
+    /** Reports each build writes, one every {@link #WRITE_INTERVAL} seconds. */
+    private static final int REPORTS = Integer.getInteger("scaleTest.reports", 20);
+    private static final int WRITE_INTERVAL = Integer.getInteger("scaleTest.writeInterval", 3);
+    private static final long HEAP_BUDGET_MB = Long.getLong("scaleTest.heapBudgetMb", 1024);
+    private static final long P99_BUDGET_MS = Long.getLong("scaleTest.p99BudgetMs", 5000);
+
+    @Test
+    void manyBuildsManyViewers(JenkinsRule r) throws Exception {
+        // the cache is bypassed in tests, which would make every request parse
+        boolean wasUnitTest = Main.isUnitTest;
+        Main.isUnitTest = false;
+        try {
+            run(r);
+        } finally {
+            Main.isUnitTest = wasUnitTest;
+        }
+    }
+
+    private void run(JenkinsRule r) throws Exception {
+        r.jenkins.setNumExecutors(BUILDS);
+        WorkflowJob p = r.jenkins.createProject(WorkflowJob.class, "p");
+        p.setConcurrentBuild(true);
+        p.setDefinition(new CpsFlowDefinition(
+                "node {\n" +
+                "  realtimeJUnit('*.xml') {\n" +
+                "    for (int i = 0; i < " + REPORTS + "; i++) {\n" +
+                "      def cases = ''\n" +
+                "      for (int c = 0; c < 50; c++) {\n" +
+                "        cases += c % 10 == 3 ? \"<testcase name='t${c}'><failure message='boom'>boom</failure></testcase>\" : \"<testcase name='t${c}'/>\"\n" +
+                "      }\n" +
+                "      writeFile text: \"<testsuite name='s${i}'>${cases}</testsuite>\", file: \"TEST-s${i}.xml\"\n" +
+                "      sleep " + WRITE_INTERVAL + "\n" +
+                "    }\n" +
+                "    semaphore 'end'\n" +
+                "  }\n" +
+                "}", true));
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long heapBefore = memory.getHeapMemoryUsage().getUsed();
+        long parsesBefore = parses();
+        // the counters are JVM-wide, so earlier tests may have added to them
+        long failedBefore = RealtimeMetrics.INSTANCE.getCount(ParseMetrics.Outcome.FAILED);
+        long started = System.nanoTime();
+
+        List<WorkflowRun> builds = new ArrayList<>();
+        for (int i = 0; i < BUILDS; i++) {
+            builds.add(p.scheduleBuild2(0).waitForStart());
+        }
+
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicInteger errors = new AtomicInteger();
+        RealtimeMetrics.Histogram latency = new RealtimeMetrics.Histogram();
+        ExecutorService viewers = Executors.newFixedThreadPool(VIEWERS);
+        String root = r.getURL().toString();
+        for (int v = 0; v < VIEWERS; v++) {
+            viewers.submit(() -> {
+                while (!stop.get()) {
+                    WorkflowRun b = builds.get(ThreadLocalRandom.current().nextInt(builds.size()));
+                    AbstractRealtimeTestResultAction a = b.getAction(AbstractRealtimeTestResultAction.class);
+                    String page = a == null ? "api/json?depth=1"
+                            : ThreadLocalRandom.current().nextBoolean() ? RealtimeTestResultsAction.URL_NAME + "/" + a.getUrlName() + "/failures?limit=20" : a.getUrlName() + "/";
+                    long t = System.nanoTime();
+                    try {
+                        fetch(root + b.getUrl() + page);
+                    } catch (IOException x) {
+                        errors.incrementAndGet();
+                    }
+                    latency.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t));
+                    Thread.sleep(ThreadLocalRandom.current().nextInt(1000, 3000));
+                }
+                return null;
+            });
+        }
+
+        for (int i = 0; i < BUILDS; i++) {
+            SemaphoreStep.waitForStart("end/" + (i + 1), builds.get(i));
+        }
+        long heapDuring = memory.getHeapMemoryUsage().getUsed();
+        stop.set(true);
+        viewers.shutdown();
+        assertTrue(viewers.awaitTermination(1, TimeUnit.MINUTES));
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        long parses = parses() - parsesBefore;
+
+        for (WorkflowRun b : builds) {
+            AbstractRealtimeTestResultAction a = b.getAction(AbstractRealtimeTestResultAction.class);
+            assertNotNull(a);
+            // the last report may be newer than the snapshot, until the next parse interval
+            long deadline = System.currentTimeMillis() + 30_000;
+            while (a.getTotalCount() != REPORTS * 50 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(500);
+            }
+            assertEquals(REPORTS * 50, a.getTotalCount());
+        }
+        for (int i = 0; i < BUILDS; i++) {
+            SemaphoreStep.success("end/" + (i + 1), null);
+        }
+        for (WorkflowRun b : builds) {
+            r.assertBuildStatus(Result.UNSTABLE, r.waitForCompletion(b));
+        }
+
+        long heapMb = (heapDuring - heapBefore) / (1024 * 1024);
+        long p50 = latency.quantile(0.5);
+        long p99 = latency.quantile(0.99);
+        LOGGER.info(String.format("%d builds, %d viewers, %ds: heap +%dMB, %d parses, request p50 %dms p99 %dms, %d errors",
+                BUILDS, VIEWERS, elapsed / 1000, heapMb, parses, p50, p99, errors.get()));
+
+        assertEquals(0, errors.get(), "failed requests");
+        assertEquals(0, RealtimeMetrics.INSTANCE.getCount(ParseMetrics.Outcome.FAILED) - failedBefore, "failed parses");
+        assertTrue(heapMb <= HEAP_BUDGET_MB, "heap grew by " + heapMb + "MB");
+        assertTrue(p99 <= P99_BUDGET_MS, "request p99 was " + p99 + "ms");
+        // each build is parsed at most once per parse interval of 5s however many people watch it, plus the parse at the end
+        long parseBudget = BUILDS * (elapsed / 5000 + 2);
+        assertTrue(parses <= parseBudget, parses + " parses, more than " + parseBudget);
+    }
+
+    private static long parses() {
+        long total = 0;
+        for (ParseMetrics.Outcome outcome : ParseMetrics.Outcome.values()) {
+            total += RealtimeMetrics.INSTANCE.getCount(outcome);
+        }
+        return total;
+    }
+
+    private static void fetch(String url) throws IOException {
+        HttpURLConnection c = (HttpURLConnection) new URL(url).openConnection();
+        try {
+            if (c.getResponseCode() >= 400) {
+                throw new IOException(url + " returned " + c.getResponseCode());
+            }
+            try (InputStream in = c.getInputStream()) {
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+        } finally {
+            c.disconnect();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package org.jenkinsci.plugins.junitrealtimetestreporter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RealtimeStdioTest {
+
+    @TempDir
+    File dir;
+
+    private File report;
+
+    @BeforeEach
+    void report() throws Exception {
+        report = new File(dir, "TEST-a.xml");
+        Files.write(report.toPath(), ("<testsuites>"
+                + "<testsuite name='a'>"
+                + "<testcase classname='a.A' name='one'><system-out>one out</system-out><system-err><![CDATA[one <err>]]></system-err></testcase>"
+                + "<testcase classname='a.A' name='two'/>"
+                + "<system-out>suite a out</system-out>"
+                + "</testsuite>"
+                + "<testsuite name='b'>"
+                + "<testcase classname='b.B' name='three'/>"
+                + "<system-out>suite b out</system-out>"
+                + "</testsuite>"
+                + "</testsuites>").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String extract(String className, String name, boolean stderr) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new RealtimeStdio.Extract(className, name, stderr, out).invoke(report, null);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void outputOfCase() throws Exception {
+        assertEquals("one out", extract("a.A", "one", false));
+        assertEquals("one <err>", extract("a.A", "one", true));
+    }
+
+    @Test
+    void fallsBackToOutputOfEnclosingSuite() throws Exception {
+        assertEquals("suite a out", extract("a.A", "two", false));
+        assertEquals("suite b out", extract("b.B", "three", false));
+    }
+
+    @Test
+    void nothingForUnknownCase() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertFalse(new RealtimeStdio.Extract("x.X", "none", false, out).invoke(report, null));
+        assertTrue(new RealtimeStdio.Extract("a.A", "one", false, out).invoke(report, null));
+    }
+}
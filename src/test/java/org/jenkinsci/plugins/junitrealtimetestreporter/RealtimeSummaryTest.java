@@ -0,0 +1,65 @@
+package org.jenkinsci.plugins.junitrealtimetestreporter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+
+import hudson.tasks.junit.CaseResult;
+import hudson.tasks.junit.SuiteResult;
+import hudson.tasks.junit.TestResult;
+
+class RealtimeSummaryTest {
+
+    private static TestResult result(int total, float duration, CaseResult... failed) {
+        TestResult r = mock(TestResult.class);
+        given(r.getTotalCount()).willReturn(total);
+        given(r.getFailCount()).willReturn(failed.length);
+        given(r.getDuration()).willReturn(duration);
+        SuiteResult suite = mock(SuiteResult.class);
+        given(suite.getCases()).willReturn(Arrays.asList(failed));
+        given(r.getSuites()).willReturn(Collections.singletonList(suite));
+        return r;
+    }
+
+    private static CaseResult failure(String className, String name) {
+        CaseResult c = mock(CaseResult.class);
+        given(c.getClassName()).willReturn(className);
+        given(c.getName()).willReturn(name);
+        return c;
+    }
+
+    @Test
+    void sumsBranches() throws Exception {
+        RealtimeSnapshot a = RealtimeSnapshot.of(result(10, 5f, failure("a.A", "x")), 20, 10f, 1);
+        RealtimeSnapshot b = RealtimeSnapshot.of(result(5, 1f, failure("b.B", "y")), 10, 2f, 1);
+        RealtimeSummary summary = RealtimeSummary.of(Arrays.asList(a, b));
+
+        assertEquals(15, summary.getTotalCount());
+        assertEquals(2, summary.getFailCount());
+        assertEquals(2, summary.getFailureIndex().size());
+        assertEquals("b.B", summary.getFailureIndex().get(FailureIndex.Order.NAME).get(1).getClassName());
+        assertEquals(30, summary.getProgress().getExpectedTests());
+        assertEquals(15, summary.getProgress().getCompletedTests());
+        assertEquals(50, summary.getProgress().getCompletedTestsPercentage());
+    }
+
+    @Test
+    void noProgressWithoutPreviousBuild() throws Exception {
+        RealtimeSnapshot a = RealtimeSnapshot.of(result(10, 5f), -1, -1, 1);
+        assertNull(RealtimeSummary.of(Collections.singletonList(a)).getProgress());
+    }
+
+    @Test
+    void recomputedOnlyWhenSnapshotsChange() throws Exception {
+        RealtimeSnapshot a = RealtimeSnapshot.of(result(10, 5f), -1, -1, 1);
+        RealtimeSummary summary = RealtimeSummary.of(Collections.singletonList(a));
+        assertSame(summary, summary.update(Collections.singletonList(a)));
+        assertNotSame(summary, summary.update(Collections.singletonList(a.touch(2))));
+    }
+}
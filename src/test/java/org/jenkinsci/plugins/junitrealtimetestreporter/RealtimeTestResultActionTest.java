@@ -0,0 +1,105 @@
+package org.jenkinsci.plugins.junitrealtimetestreporter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import hudson.FilePath;
+import hudson.maven.MavenBuild;
+import hudson.tasks.junit.TestResult;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class RealtimeTestResultActionTest {
+
+    @TempDir
+    File ws;
+
+    @Test
+    void moduleOnlyParsesItsOwnReports(JenkinsRule r) throws Exception {
+        report("a/target/surefire-reports/TEST-a.xml", "a.A");
+        report("b/target/surefire-reports/TEST-b.xml", "b.B");
+        RealtimeTestResultAction action = module("a");
+
+        TestResult result = action.parse();
+        assertEquals(1, result.getTotalCount());
+        assertNotNull(result.getSuite("a.A"));
+    }
+
+    @Test
+    void runningExecutionIsParsedUntilItPublishesItsResult(JenkinsRule r) throws Exception {
+        report("a/target/surefire-reports/TEST-a.xml", "a.A");
+        report("a/target/failsafe-reports/TEST-it.xml", "a.IT");
+        RealtimeTestResultAction action = module("a");
+
+        action.executionStarted(new File(ws, "a/target/failsafe-reports").getAbsolutePath());
+        TestResult running = action.parse();
+        assertEquals(1, running.getTotalCount());
+        assertNotNull(running.getSuite("a.IT"));
+
+        TestResult published = new TestResult();
+        action.executionFinished(published);
+        assertSame(published, action.getLastResult());
+        // nothing to poll until the next execution starts
+        assertSame(published, action.parse());
+
+        action.executionStarted(new File(ws, "a/target/surefire-reports").getAbsolutePath());
+        TestResult next = action.parse();
+        assertNotSame(published, next);
+        assertNotNull(next.getSuite("a.A"));
+    }
+
+    @Test
+    void finishedExecutionsAreMergedIntoTheModuleResult(JenkinsRule r) throws Exception {
+        report("a/target/surefire-reports/TEST-a.xml", "a.A");
+        report("a/target/failsafe-reports/TEST-it.xml", "a.IT");
+        RealtimeTestResultAction action = module("a");
+
+        action.executionStarted(new File(ws, "a/target/surefire-reports").getAbsolutePath());
+        action.executionFinished(parse("a/target/surefire-reports"));
+        action.executionStarted(new File(ws, "a/target/failsafe-reports").getAbsolutePath());
+        TestResult running = action.parse();
+        assertEquals(2, running.getTotalCount());
+        assertNotNull(running.getSuite("a.A"));
+        assertNotNull(running.getSuite("a.IT"));
+
+        action.executionFinished(parse("a/target/failsafe-reports"));
+        assertEquals(2, action.getLastResult().getTotalCount());
+        assertNotNull(action.getLastResult().getSuite("a.A"));
+    }
+
+    private RealtimeTestResultAction module(String dir) {
+        MavenBuild build = mock(MavenBuild.class);
+        when(build.getWorkspace()).thenReturn(new FilePath(ws));
+        RealtimeTestResultAction action = new RealtimeTestResultAction(new File(ws, dir).getAbsolutePath());
+        action.run = build;
+        action.owner = build;
+        return action;
+    }
+
+    /**
+     * Result of an execution, as the Maven process parses it.
+     */
+    private TestResult parse(String dir) throws Exception {
+        File reports = new File(ws, dir);
+        TestResult result = new TestResult();
+        result.parse(0, reports, null, reports.list());
+        result.tally();
+        return result;
+    }
+
+    private void report(String path, String className) throws Exception {
+        File f = new File(ws, path);
+        f.getParentFile().mkdirs();
+        Files.write(f.toPath(), ("<testsuite name='" + className + "' tests='1'><testcase classname='" + className + "' name='x'/></testsuite>")
+                .getBytes(StandardCharsets.UTF_8));
+    }
+}
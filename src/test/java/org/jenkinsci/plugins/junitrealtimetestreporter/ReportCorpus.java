@@ -0,0 +1,78 @@
+package org.jenkinsci.plugins.junitrealtimetestreporter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Synthetic surefire reports, shaped like what realtime parsing meets in practice.
+ */
+public enum ReportCorpus {
+
+    /** Many small suites, as written by a typical unit test run. */
+    SMALL(50, 20, 0, false),
+    /** A few huge suites, as written by parameterized or generated tests. */
+    LARGE(10, 2000, 0, false),
+    /** Chatty tests with lots of output per case. */
+    LONG_STDIO(20, 50, 64 * 1024, false),
+    /** Small suites, some of which are still being written. */
+    TRUNCATED(50, 20, 0, true);
+
+    private final int files;
+    private final int cases;
+    private final int stdio;
+    private final boolean truncated;
+
+    ReportCorpus(int files, int cases, int stdio, boolean truncated) {
+        this.files = files;
+        this.cases = cases;
+        this.stdio = stdio;
+        this.truncated = truncated;
+    }
+
+    /**
+     * Writes the reports to {@code dir/target/surefire-reports}.
+     */
+    void write(File dir) throws IOException {
+        File reports = new File(dir, "target/surefire-reports");
+        Files.createDirectories(reports.toPath());
+        for (int f = 0; f < files; f++) {
+            String xml = suite(f);
+            if (truncated && f % 5 == 4) {
+                xml = xml.substring(0, xml.length() / 2);
+            }
+            Files.write(new File(reports, "TEST-pkg" + f % 7 + ".Suite" + f + ".xml").toPath(), xml.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private String suite(int f) {
+        String className = "pkg" + f % 7 + ".Suite" + f;
+        StringBuilder b = new StringBuilder();
+        b.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        b.append("<testsuite name=\"").append(className).append("\" tests=\"").append(cases).append("\" time=\"1.0\">\n");
+        for (int c = 0; c < cases; c++) {
+            b.append("  <testcase classname=\"").append(className).append("\" name=\"test").append(c).append("\" time=\"0.01\">\n");
+            if (c % 10 == 3) {
+                b.append("    <failure message=\"expected:&lt;").append(c).append("&gt; but was:&lt;0&gt;\" type=\"java.lang.AssertionError\">")
+                        .append("java.lang.AssertionError: expected:&lt;").append(c).append("&gt; but was:&lt;0&gt;\n");
+                for (int frame = 0; frame < 20; frame++) {
+                    b.append("\tat ").append(className).append(".test").append(c).append("(Suite").append(f).append(".java:").append(frame + 10).append(")\n");
+                }
+                b.append("</failure>\n");
+            } else if (c % 10 == 7) {
+                b.append("    <skipped/>\n");
+            }
+            if (stdio > 0) {
+                b.append("    <system-out>");
+                for (int i = 0; i < stdio; i += 64) {
+                    b.append("line ").append(i).append(" of the output of a rather chatty test case........\n");
+                }
+                b.append("</system-out>\n");
+            }
+            b.append("  </testcase>\n");
+        }
+        b.append("</testsuite>\n");
+        return b.toString();
+    }
+}
@@ -0,0 +1,47 @@
+package org.jenkinsci.plugins.junitrealtimetestreporter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import hudson.tasks.junit.SuiteResult;
+import hudson.tasks.junit.TestResult;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ResultAggregatorTest {
+
+    @TempDir
+    File dir;
+
+    @Test
+    void aggregatingAgainGivesTheSameCounts() throws Exception {
+        // suites of the same name are folded into one by TestResult.merge
+        TestResult a = parse("a.xml", "<testsuite name='s' tests='1'><testcase classname='s' name='x'/></testsuite>");
+        TestResult b = parse("b.xml", "<testsuite name='s' tests='1'><testcase classname='s' name='y'><failure message='boom'/></testcase></testsuite>");
+        List<TestResult> results = Arrays.asList(a, b);
+
+        for (int i = 0; i < 3; i++) {
+            TestResult merged = new ResultAggregator().merge(results);
+            assertEquals(2, merged.getTotalCount());
+            assertEquals(1, merged.getFailCount());
+        }
+
+        SuiteResult suite = a.getSuites().iterator().next();
+        assertEquals(1, suite.getCases().size());
+        assertSame(a, suite.getParent());
+        assertEquals(1, a.getTotalCount());
+        assertEquals(1, b.getFailCount());
+    }
+
+    private TestResult parse(String name, String xml) throws Exception {
+        Files.write(new File(dir, name).toPath(), xml.getBytes(StandardCharsets.UTF_8));
+        TestResult result = new TestResult();
+        result.parse(0, dir, null, new String[] {name});
+        result.tally();
+        return result;
+    }
+}
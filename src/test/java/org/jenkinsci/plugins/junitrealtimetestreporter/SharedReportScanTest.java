@@ -0,0 +1,114 @@
+package org.jenkinsci.plugins.junitrealtimetestreporter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import hudson.FilePath;
+import hudson.tasks.junit.SuiteResult;
+import hudson.tasks.junit.TestResult;
+import hudson.tasks.test.PipelineTestDetails;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class SharedReportScanTest {
+
+    private static final long PARSE_INTERVAL = 2000;
+
+    @TempDir
+    File dir;
+
+    @Test
+    void overlappingMembersGetIndependentResults(JenkinsRule r) throws Exception {
+        FilePath ws = new FilePath(dir);
+        report("a/TEST-a.xml", "a.A");
+        report("b/TEST-b.xml", "b.B");
+        AtomicLong clock = new AtomicLong();
+        SharedReportScan scan = new SharedReportScan(clock::get);
+        RealtimeParseCallable.Member outer = new RealtimeParseCallable.Member("**/*.xml", false, details("3"));
+        RealtimeParseCallable.Member inner = new RealtimeParseCallable.Member("a/*.xml", true, details("5", "3"));
+
+        TestResult outerFirst = scan.scan("outer", outer, ws, 0, null, PARSE_INTERVAL, PARSE_INTERVAL);
+        assertEquals(2, outerFirst.getTotalCount());
+        clock.addAndGet(PARSE_INTERVAL / 2);
+        // scans for both blocks and keeps the result of the outer one for its next refresh
+        TestResult innerResult = scan.scan("inner", inner, ws, 0, null, PARSE_INTERVAL, PARSE_INTERVAL);
+        assertEquals(1, innerResult.getTotalCount());
+        TestResult outerResult = scan.scan("outer", outer, ws, 0, outerFirst, PARSE_INTERVAL, PARSE_INTERVAL);
+        assertNotSame(outerFirst, outerResult);
+        assertEquals(2, outerResult.getTotalCount());
+        assertEquals(1, innerResult.getTotalCount());
+
+        SuiteResult outerSuite = outerResult.getSuite("a.A");
+        SuiteResult innerSuite = innerResult.getSuite("a.A");
+        assertNotSame(outerSuite, innerSuite);
+        assertSame(outerResult, outerSuite.getParent());
+        assertSame(innerResult, innerSuite.getParent());
+        assertEquals("3", outerSuite.getNodeId());
+        assertEquals("5", innerSuite.getNodeId());
+        assertEquals(Collections.singletonList("3"), innerSuite.getEnclosingBlocks());
+    }
+
+    @Test
+    void rescansRatherThanServingResultsOlderThanTheParseInterval(JenkinsRule r) throws Exception {
+        FilePath ws = new FilePath(dir);
+        report("a/TEST-a.xml", "a.A");
+        AtomicLong clock = new AtomicLong();
+        SharedReportScan scan = new SharedReportScan(clock::get);
+        RealtimeParseCallable.Member outer = new RealtimeParseCallable.Member("**/*.xml", false, details("3"));
+        RealtimeParseCallable.Member inner = new RealtimeParseCallable.Member("a/*.xml", false, details("5", "3"));
+
+        TestResult outerFirst = scan.scan("outer", outer, ws, 0, null, PARSE_INTERVAL, PARSE_INTERVAL);
+        clock.addAndGet(PARSE_INTERVAL / 2);
+        scan.scan("inner", inner, ws, 0, null, PARSE_INTERVAL, PARSE_INTERVAL);
+        report("b/TEST-b.xml", "b.B");
+        clock.addAndGet(PARSE_INTERVAL);
+
+        assertEquals(2, scan.scan("outer", outer, ws, 0, outerFirst, PARSE_INTERVAL, PARSE_INTERVAL).getTotalCount());
+    }
+
+    @Test
+    void onlyParsesForMembersDueToRefresh(JenkinsRule r) throws Exception {
+        FilePath ws = new FilePath(dir);
+        report("a/TEST-a.xml", "a.A");
+        AtomicLong clock = new AtomicLong();
+        SharedReportScan scan = new SharedReportScan(clock::get);
+        RealtimeParseCallable.Member outer = new RealtimeParseCallable.Member("**/*.xml", false, details("3"));
+        RealtimeParseCallable.Member inner = new RealtimeParseCallable.Member("a/*.xml", false, details("5", "3"));
+
+        scan.scan("outer", outer, ws, 0, null, PARSE_INTERVAL, PARSE_INTERVAL);
+        // the outer block refreshed just now, so it is not parsed for yet
+        TestResult innerFirst = scan.scan("inner", inner, ws, 0, null, PARSE_INTERVAL, PARSE_INTERVAL);
+        clock.addAndGet(PARSE_INTERVAL / 2);
+        scan.scan("inner", inner, ws, 0, innerFirst, PARSE_INTERVAL, PARSE_INTERVAL);
+        report("b/TEST-b.xml", "b.B");
+        clock.addAndGet(PARSE_INTERVAL / 4);
+        // the outer block did not pick up the result parsed for it, so it is not parsed for again
+        scan.scan("inner", inner, ws, 0, innerFirst, PARSE_INTERVAL, PARSE_INTERVAL);
+
+        assertEquals(1, scan.scan("outer", outer, ws, 0, null, PARSE_INTERVAL, PARSE_INTERVAL).getTotalCount());
+    }
+
+    private void report(String path, String className) throws Exception {
+        File f = new File(dir, path);
+        f.getParentFile().mkdirs();
+        Files.write(f.toPath(), ("<testsuite name='" + className + "' tests='1'><testcase classname='" + className + "' name='x'/></testsuite>")
+                .getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static PipelineTestDetails details(String nodeId, String... enclosingBlocks) {
+        PipelineTestDetails details = new PipelineTestDetails();
+        details.setNodeId(nodeId);
+        details.setEnclosingBlocks(Arrays.asList(enclosingBlocks));
+        details.setEnclosingBlockNames(Arrays.asList(enclosingBlocks));
+        return details;
+    }
+}